@@ -0,0 +1,97 @@
+package island;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clicks on random land cells of one shared frozen map from 1, 2, 4 and all available threads:
+ * a lake count plus a traversal of up to {@link #TRAVERSAL_LIMIT} cells of the clicked island per query.
+ * With no shared mutable state, throughput should grow close to linearly with the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ConcurrentQueryBenchmark {
+    static final int TRAVERSAL_LIMIT = 1000;
+
+    @State(Scope.Benchmark)
+    public static class SharedMap {
+        SharedIslandQueries queries;
+        int[] landCells;
+        int width;
+
+        @Setup(Level.Trial)
+        public void setUp(MapState map) {
+            queries = IslandMap.fromGrid(map.grid, null).sharedQueries();
+            width = map.grid.getWidth();
+            final Random random = new Random(1);
+            landCells = new int[4096];
+            for (int i = 0; i < landCells.length && map.landStart < map.grid.cellCount(); ) {
+                final int cell = random.nextInt(map.grid.cellCount());
+                if (map.grid.isLand(cell)) {
+                    landCells[i++] = cell;
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Clicks {
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = (int) Thread.currentThread().getId() * 31;
+        }
+    }
+
+    private static int query(SharedMap shared, Clicks clicks) {
+        final int cell = shared.landCells[clicks.next++ & (shared.landCells.length - 1)];
+        final int x = cell % shared.width;
+        final int y = cell / shared.width;
+        if (!shared.queries.isLand(x, y)) {
+            return 0; // a map without land
+        }
+        final int[] budget = { TRAVERSAL_LIMIT };
+        return shared.queries.lakeCountAt(x, y) + shared.queries.traverseIsland(x, y, c -> --budget[0] > 0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int query1Thread(SharedMap shared, Clicks clicks) {
+        return query(shared, clicks);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public int query2Threads(SharedMap shared, Clicks clicks) {
+        return query(shared, clicks);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int query4Threads(SharedMap shared, Clicks clicks) {
+        return query(shared, clicks);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int queryMaxThreads(SharedMap shared, Clicks clicks) {
+        return query(shared, clicks);
+    }
+}
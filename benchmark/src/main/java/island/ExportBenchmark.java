@@ -0,0 +1,72 @@
+package island;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ExportBenchmark {
+
+    /**
+     * Counts and drops the bytes, so only the encoding is measured.
+     */
+    static final class NullChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer src) {
+            final int bytes = src.remaining();
+            src.position(src.limit());
+            return bytes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Exporter {
+        MapExporter exporter;
+
+        @Setup
+        public void setUp(MapState state) {
+            exporter = new MapExporter(state.islandMap, '.', '#');
+        }
+    }
+
+    @Benchmark
+    public String export(MapState state) {
+        return state.islandMap.export('.', '#');
+    }
+
+    @Benchmark
+    public long exportToChannel(Exporter exporter) throws IOException {
+        return exporter.exporter.write(new NullChannel());
+    }
+
+    @Benchmark
+    public long exportToStream(Exporter exporter) throws IOException {
+        return exporter.exporter.write(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,97 @@
+package island;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word-parallel {@link BitFloodFill} against the per-cell BFS on the same regions: the island holding the first
+ * land cell (8-connected) and the water region holding the first water cell (4-connected).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class FloodFillBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Regions {
+        SharedIslandQueries queries;
+        Traversal<Void> traversal;
+        int waterStart;
+
+        @Setup(Level.Trial)
+        public void setUp(MapState map) {
+            final IslandMap<Void> islandMap = IslandMap.fromGrid(map.grid, null);
+            traversal = new Traversal<>(islandMap);
+            queries = islandMap.sharedQueries();
+            waterStart = 0;
+            while (waterStart < map.grid.cellCount() && map.grid.isLand(waterStart)) {
+                waterStart++;
+            }
+        }
+    }
+
+    @Benchmark
+    public long islandBits(MapState state) {
+        final LandGrid grid = state.grid;
+        if (state.landStart == grid.cellCount()) {
+            return 0;
+        }
+        return BitFloodFill.cardinality(BitFloodFill.island(grid, state.landStart % grid.getWidth(),
+                state.landStart / grid.getWidth()));
+    }
+
+    @Benchmark
+    public long islandBFS(MapState state, Regions regions) {
+        final LandGrid grid = state.grid;
+        if (state.landStart == grid.cellCount()) {
+            return 0;
+        }
+        return regions.queries.traverseIsland(state.landStart % grid.getWidth(), state.landStart / grid.getWidth(),
+                c -> true);
+    }
+
+    @Benchmark
+    public long waterBits(MapState state, Regions regions) {
+        final LandGrid grid = state.grid;
+        if (regions.waterStart == grid.cellCount()) {
+            return 0;
+        }
+        final long[] passable = BitFloodFill.water(grid);
+        final long[] reached = new long[passable.length];
+        final int x = regions.waterStart % grid.getWidth();
+        reached[regions.waterStart / grid.getWidth() * grid.getWordsPerRow() + (x >>> 6)] = 1L << x;
+        BitFloodFill.fill(reached, passable, grid.getWidth(), grid.getHeight(), false);
+        return BitFloodFill.cardinality(reached);
+    }
+
+    @Benchmark
+    public long waterBFS(MapState state, Regions regions) {
+        final LandGrid grid = state.grid;
+        if (regions.waterStart == grid.cellCount()) {
+            return 0;
+        }
+        return regions.traversal.traverseBFS(regions.waterStart, c -> true, (c, n) -> !grid.isLand(n), c -> true);
+    }
+
+    @Benchmark
+    public int lakeCountBits(MapState state) {
+        final LandGrid grid = state.grid;
+        if (state.landStart == grid.cellCount()) {
+            return 0;
+        }
+        return BitFloodFill.lakeCount(grid, state.landStart % grid.getWidth(), state.landStart / grid.getWidth());
+    }
+}
@@ -0,0 +1,66 @@
+package island;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class LabelingBenchmark {
+
+    /**
+     * A pool of the given size, for the speedup of the parallel labeling over its one-thread run.
+     */
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({ "1", "2", "4", "8" })
+        int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup
+        public void setUp() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public ComponentLabeling bfsLabeling(MapState state) {
+        return ComponentLabeling.label(state.grid);
+    }
+
+    @Benchmark
+    public ComponentLabeling unionFindLabeling(MapState state) {
+        return UnionFindLabeler.label(state.grid);
+    }
+
+    @Benchmark
+    public ComponentLabeling parallelLabeling(MapState state) {
+        return ParallelLabeler.label(state.grid);
+    }
+
+    @Benchmark
+    public ComponentLabeling parallelLabelingScaling(MapState state, Pool pool) {
+        return ParallelLabeler.label(state.grid, pool.pool);
+    }
+}
@@ -0,0 +1,44 @@
+package island;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class LoadBenchmark {
+
+    @Benchmark
+    public IslandMap<MarkerPayload> readFromString(MapState state) {
+        return IslandMap.readFromString('.', state.text, (x, y) -> new MarkerPayload());
+    }
+
+    @Benchmark
+    public IslandMap<MarkerPayload> readFromResource(MapState state) {
+        return IslandMap.readFromResource('.', state.textFile, (x, y) -> new MarkerPayload());
+    }
+
+    @Benchmark
+    public IslandMap<Void> readFromResourceNoPayload(MapState state) {
+        return IslandMap.readFromResource('.', state.textFile);
+    }
+
+    @Benchmark
+    public IslandMap<Void> readFromMappedFile(MapState state) {
+        return IslandMap.readFromMappedFile('.', state.textFile);
+    }
+
+    @Benchmark
+    public LandGrid readBinary(MapState state) {
+        return BinaryMapFormat.read(state.binaryFile);
+    }
+}
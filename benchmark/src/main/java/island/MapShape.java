@@ -0,0 +1,116 @@
+package island;
+
+import java.util.Random;
+
+/**
+ * Synthetic maps for the benchmarks, all square and surrounded by at least one row/column of ocean.
+ */
+public enum MapShape {
+    NOISE_25 {
+        @Override
+        LandGrid generate(int side) {
+            return noise(side, 0.25);
+        }
+    },
+    NOISE_50 {
+        @Override
+        LandGrid generate(int side) {
+            return noise(side, 0.5);
+        }
+    },
+    NOISE_75 {
+        @Override
+        LandGrid generate(int side) {
+            return noise(side, 0.75);
+        }
+    },
+    /** Concentric square rings two cells wide: islands nested in lakes nested in islands, as deep as it gets. */
+    RINGS {
+        @Override
+        LandGrid generate(int side) {
+            final LandGrid grid = new LandGrid(side, side);
+            for (int y = 1; y < side - 1; y++) {
+                for (int x = 1; x < side - 1; x++) {
+                    final int ring = Math.min(Math.min(x, y), Math.min(side - 1 - x, side - 1 - y));
+                    grid.setLand(x, y, ((ring - 1) / 2) % 2 == 0);
+                }
+            }
+            return grid;
+        }
+    },
+    /** One land path winding inwards, with a water corridor of the same shape between its turns. */
+    SPIRAL {
+        @Override
+        LandGrid generate(int side) {
+            final LandGrid grid = new LandGrid(side, side);
+            final int[] dx = { 1, 0, -1, 0 };
+            final int[] dy = { 0, 1, 0, -1 };
+            final int interior = side - 2;
+            int x = 1;
+            int y = 1;
+            grid.setLand(x, y, true);
+            // segment lengths: n-1, n-1, n-1, n-3, n-3, n-5, n-5, ... for an n x n interior
+            for (int turn = 0; ; turn++) {
+                final int length = interior - 1 - 2 * ((turn - 1) / 2);
+                if (length <= 0) {
+                    break;
+                }
+                for (int i = 0; i < length; i++) {
+                    x += dx[turn % 4];
+                    y += dy[turn % 4];
+                    grid.setLand(x, y, true);
+                }
+            }
+            return grid;
+        }
+    },
+    /** A single island holding one lake that snakes through all of it, the worst case for a lake flood. */
+    SNAKE_LAKE {
+        @Override
+        LandGrid generate(int side) {
+            final LandGrid grid = new LandGrid(side, side);
+            for (int y = 1; y < side - 1; y++) {
+                for (int x = 1; x < side - 1; x++) {
+                    grid.setLand(x, y, true);
+                }
+            }
+            for (int y = 2, lane = 0; y < side - 2; y += 2, lane++) {
+                for (int x = 2; x < side - 2; x++) {
+                    grid.setLand(x, y, false);
+                }
+                if (y + 2 < side - 2) {
+                    grid.setLand((lane % 2 == 0) ? side - 3 : 2, y + 1, false);
+                }
+            }
+            return grid;
+        }
+    };
+
+    abstract LandGrid generate(int side);
+
+    static int sideForCells(long cells) {
+        return Math.max(4, (int) Math.round(Math.sqrt(cells)));
+    }
+
+    private static LandGrid noise(int side, double landDensity) {
+        final Random random = new Random(side);
+        final LandGrid grid = new LandGrid(side, side);
+        for (int y = 1; y < side - 1; y++) {
+            for (int x = 1; x < side - 1; x++) {
+                grid.setLand(x, y, random.nextDouble() < landDensity);
+            }
+        }
+        return grid;
+    }
+
+    static String toText(LandGrid grid) {
+        final StringBuilder sb = new StringBuilder(grid.getHeight() * (grid.getWidth() + 1));
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                sb.append(grid.isLand(x, y) ? '#' : '.');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package island;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * One generated map per (shape, size), also saved as text and binary files for the loader benchmarks.
+ */
+@State(Scope.Benchmark)
+public class MapState {
+    @Param({ "1000", "100000", "10000000", "100000000" })
+    public long cells;
+
+    @Param({ "NOISE_25", "NOISE_50", "NOISE_75", "RINGS", "SPIRAL", "SNAKE_LAKE" })
+    public MapShape shape;
+
+    public LandGrid grid;
+    public IslandMap<MarkerPayload> islandMap;
+    public String text;
+    public Path textFile;
+    public Path binaryFile;
+    /** First land cell in raster order, the start of the traversal benchmarks. */
+    public int landStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        grid = shape.generate(MapShape.sideForCells(cells));
+        islandMap = IslandMap.fromGrid(grid, (x, y) -> new MarkerPayload());
+        text = MapShape.toText(grid);
+        textFile = Files.createTempFile("island-" + shape, ".txt");
+        Files.writeString(textFile, text);
+        binaryFile = Files.createTempFile("island-" + shape, ".islm");
+        BinaryMapFormat.write(grid, binaryFile);
+        landStart = 0;
+        while (landStart < grid.cellCount() && !grid.isLand(landStart)) {
+            landStart++;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+    }
+}
@@ -0,0 +1,69 @@
+package island;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Floods the island holding the first land cell of the map, and walks the neighbours of every cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class TraversalBenchmark {
+
+    /**
+     * Built once per trial, so the benchmarks measure the traversal and not the creation of its state.
+     */
+    @State(Scope.Benchmark)
+    public static class Traversals {
+        Traversal<MarkerPayload> traversal;
+
+        @Setup
+        public void setUp(MapState state) {
+            traversal = new Traversal<>(state.islandMap);
+        }
+    }
+
+    @Benchmark
+    public int traverseBFS(MapState state, Traversals traversals) {
+        final IslandMap<MarkerPayload> islandMap = state.islandMap;
+        final LandGrid grid = state.grid;
+        if (state.landStart == grid.cellCount()) {
+            return 0;
+        }
+        return traversals.traversal.traverseBFS(islandMap.getPoint(state.landStart % grid.getWidth(), state.landStart / grid.getWidth()),
+                p -> true, (p, n) -> n.isLand(), p -> true);
+    }
+
+    @Benchmark
+    public int traverseBFSCellIndex(MapState state, Traversals traversals) {
+        final LandGrid grid = state.grid;
+        if (state.landStart == grid.cellCount()) {
+            return 0;
+        }
+        return traversals.traversal.traverseBFS(state.landStart, c -> true, (c, n) -> grid.isLand(n), c -> true);
+    }
+
+    @Benchmark
+    public void getNeighbours(MapState state, Blackhole blackhole) {
+        final IslandMap<MarkerPayload> islandMap = state.islandMap;
+        for (int y = 0; y < islandMap.getHeight(); y++) {
+            for (int x = 0; x < islandMap.getWidth(); x++) {
+                blackhole.consume(islandMap.getNeighbours(islandMap.getPoint(x, y)));
+            }
+        }
+    }
+}
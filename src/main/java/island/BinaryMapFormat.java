@@ -0,0 +1,283 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary map files. Layout, little-endian:
+ * <pre>
+ *  0  magic "ISLM"
+ *  4  version (1 byte), encoding (1 byte), 2 reserved bytes
+ *  8  width (int), height (int)
+ * 16  payload length in bytes (long)
+ * 24  CRC32 (int), 4 reserved bytes
+ * 32  payload
+ * </pre>
+ * The CRC32 covers the payload and then every header byte but its own four, so a corrupted size or encoding
+ * is caught as well as corrupted cells.
+ * <p>
+ * {@link Encoding#BITS} stores the {@link LandGrid} words as they are, so loading is one bulk copy out of
+ * the file mapping. The mapping is not used in place: a grid is a heap {@code long[]}, which every
+ * word-parallel algorithm of the package indexes directly, and the copy runs at memory speed.
+ * <p>
+ * {@link Encoding#RLE} stores each row as varint run lengths, alternating water and land and
+ * starting with water (possibly an empty run), which is much smaller for maps with long uniform runs.
+ */
+public final class BinaryMapFormat {
+    public enum Encoding {
+        BITS,
+        RLE
+    }
+
+    private static final int MAGIC = 0x4d4c5349; // "ISLM" read as a little-endian int
+    private static final byte VERSION = 2; // 1 had a checksum of the payload only
+    private static final int CRC_OFFSET = 24;
+    private static final int HEADER_BYTES = 32;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private BinaryMapFormat() {
+    }
+
+    /**
+     * Writes the grid with whichever encoding is smaller.
+     */
+    @SneakyThrows
+    public static void write(LandGrid grid, Path path) {
+        write(grid, path, rleBytes(grid) < bitsBytes(grid) ? Encoding.RLE : Encoding.BITS);
+    }
+
+    @SneakyThrows
+    public static void write(LandGrid grid, Path path, Encoding encoding) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final PayloadWriter writer = new PayloadWriter(channel);
+            channel.position(HEADER_BYTES);
+            if (encoding == Encoding.BITS) {
+                writeBits(grid, writer);
+            } else {
+                writeRle(grid, writer);
+            }
+            writer.flush();
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).put(VERSION).put((byte) encoding.ordinal()).putShort((short) 0)
+                    .putInt(grid.getWidth()).putInt(grid.getHeight())
+                    .putLong(writer.length)
+                    .putInt(0).putInt(0)
+                    .flip();
+            updateWithHeader(writer.crc, header);
+            header.putInt(CRC_OFFSET, (int) writer.crc.getValue());
+            channel.write(header, 0);
+        }
+    }
+
+    public static <T> IslandMap<T> readIslandMap(Path path) {
+        return IslandMap.fromGrid(read(path), null);
+    }
+
+    @SneakyThrows
+    public static LandGrid read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Preconditions.checkArgument(channel.size() >= HEADER_BYTES, "Not a binary map, too short: " + path);
+            final MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            Preconditions.checkArgument(file.getInt(0) == MAGIC, "Not a binary map, bad magic: " + path);
+            Preconditions.checkArgument(file.get(4) == VERSION, "Unsupported binary map version " + file.get(4));
+            Preconditions.checkArgument(file.get(5) >= 0 && file.get(5) < Encoding.values().length,
+                    "Unknown binary map encoding " + file.get(5));
+            final Encoding encoding = Encoding.values()[file.get(5)];
+            final int width = file.getInt(8);
+            final int height = file.getInt(12);
+            final long payloadLength = file.getLong(16);
+            Preconditions.checkArgument(payloadLength <= Integer.MAX_VALUE, "Payload too large: " + payloadLength);
+            Preconditions.checkArgument(payloadLength == channel.size() - HEADER_BYTES,
+                    "Truncated binary map: expected " + payloadLength + " payload bytes, but found "
+                            + (channel.size() - HEADER_BYTES));
+
+            final ByteBuffer payload = file.slice(HEADER_BYTES, (int) payloadLength).order(ByteOrder.LITTLE_ENDIAN);
+            final CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            updateWithHeader(crc, file.slice(0, HEADER_BYTES));
+            Preconditions.checkArgument((int) crc.getValue() == file.getInt(CRC_OFFSET), "Checksum mismatch in " + path);
+
+            final LandGrid grid = new LandGrid(width, height);
+            if (encoding == Encoding.BITS) {
+                final LongBuffer words = payload.asLongBuffer();
+                Preconditions.checkArgument(words.remaining() == grid.words().length, "Payload size mismatch");
+                words.get(grid.words());
+            } else {
+                readRle(payload, grid);
+            }
+            return grid;
+        }
+    }
+
+    /**
+     * Adds the header, without the checksum slot, to a checksum of the payload.
+     */
+    private static void updateWithHeader(CRC32 crc, ByteBuffer header) {
+        crc.update(header.duplicate().position(0).limit(CRC_OFFSET));
+        crc.update(header.duplicate().position(CRC_OFFSET + 4).limit(HEADER_BYTES));
+    }
+
+    private static long bitsBytes(LandGrid grid) {
+        return 8L * grid.words().length;
+    }
+
+    private static long rleBytes(LandGrid grid) throws IOException {
+        final long[] size = new long[1];
+        forEachRun(grid, run -> size[0] += varintBytes(run));
+        return size[0];
+    }
+
+    private static void writeBits(LandGrid grid, PayloadWriter writer) throws IOException {
+        for (long word: grid.words()) {
+            writer.ensureRemaining(8);
+            writer.buffer.putLong(word);
+        }
+    }
+
+    private static void writeRle(LandGrid grid, PayloadWriter writer) throws IOException {
+        forEachRun(grid, run -> {
+            writer.ensureRemaining(5);
+            putVarint(writer.buffer, run);
+        });
+    }
+
+    private static void readRle(ByteBuffer payload, LandGrid grid) {
+        final int width = grid.getWidth();
+        for (int y = 0; y < grid.getHeight(); y++) {
+            int x = 0;
+            boolean land = false;
+            while (x < width) {
+                final int run = getVarint(payload);
+                Preconditions.checkArgument(run <= width - x, "Run at y=" + y + " exceeds the row width");
+                if (land) {
+                    setLandRange(grid, y, x, x + run);
+                }
+                x += run;
+                land = !land;
+            }
+        }
+        Preconditions.checkArgument(!payload.hasRemaining(), "Trailing bytes after the last row");
+    }
+
+    private static void setLandRange(LandGrid grid, int y, int fromX, int toX) {
+        final long[] words = grid.words();
+        final int rowBase = y * grid.getWordsPerRow();
+        while (fromX < toX) {
+            final int wordEnd = Math.min(toX, (fromX | 63) + 1);
+            final int bits = wordEnd - fromX;
+            final long mask = (bits == 64) ? -1L : ((1L << bits) - 1) << fromX;
+            words[rowBase + (fromX >>> 6)] |= mask;
+            fromX = wordEnd;
+        }
+    }
+
+    private interface RunConsumer {
+        void accept(int run) throws IOException;
+    }
+
+    /**
+     * Runs of each row alternate water and land, starting with a (possibly empty) water run.
+     */
+    private static void forEachRun(LandGrid grid, RunConsumer consumer) throws IOException {
+        final int width = grid.getWidth();
+        final long[] words = grid.words();
+        for (int y = 0; y < grid.getHeight(); y++) {
+            final int rowBase = y * grid.getWordsPerRow();
+            boolean land = false;
+            int runStart = 0;
+            while (runStart < width) {
+                final int runEnd = nextChange(words, rowBase, runStart, width, land);
+                consumer.accept(runEnd - runStart);
+                runStart = runEnd;
+                land = !land;
+            }
+        }
+    }
+
+    /**
+     * @return the first x at or after {@code fromX} whose cell is not {@code land}, or the width if there is none
+     */
+    private static int nextChange(long[] words, int rowBase, int fromX, int width, boolean land) {
+        int x = fromX;
+        while (x < width) {
+            long word = words[rowBase + (x >>> 6)];
+            if (land) {
+                word = ~word;
+            }
+            word &= -1L << x;
+            if (word != 0) {
+                return Math.min(width, (x & ~63) + Long.numberOfTrailingZeros(word));
+            }
+            x = (x & ~63) + 64;
+        }
+        return width;
+    }
+
+    private static int varintBytes(int value) {
+        int bytes = 1;
+        while ((value >>>= 7) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static final class PayloadWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private long length;
+
+        PayloadWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            length += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
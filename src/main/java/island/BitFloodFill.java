@@ -0,0 +1,260 @@
+package island;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Flood fill over bit masks laid out like {@link LandGrid} words, expanding 64 cells per machine operation.
+ * <p>
+ * A fill alternates downward and upward sweeps over the rows until nothing changes. Each sweep lets the row
+ * above (or below) spill into the current row, then spreads every row sideways across its whole runs of
+ * passable cells with an occluded (Kogge-Stone) fill, carrying run ends across word boundaries.
+ * Water spills straight up and down (4-connected); land also spills diagonally (8-connected), which is the
+ * row above or below dilated by one cell sideways. A region that winds up and down k times needs about k
+ * sweeps, so spirals are the worst case; ordinary maps settle in a few.
+ */
+public final class BitFloodFill {
+    private BitFloodFill() {
+    }
+
+    /**
+     * Grows {@code reached}, in place, to every cell of {@code passable} connected to it through passable cells.
+     * Reached cells outside of {@code passable} are dropped first.
+     */
+    public static void fill(long[] reached, long[] passable, int width, int height, boolean diagonal) {
+        final int wordsPerRow = (width + 63) >>> 6;
+        Preconditions.checkArgument(reached.length == wordsPerRow * height && passable.length == reached.length,
+                "Mask size mismatch for a " + width + "x" + height + " map");
+        int top = height;
+        int bottom = -1;
+        for (int y = 0; y < height; y++) {
+            final int base = y * wordsPerRow;
+            long any = 0;
+            for (int w = base; w < base + wordsPerRow; w++) {
+                reached[w] &= passable[w];
+                any |= reached[w];
+            }
+            if (any != 0) {
+                spreadRow(reached, passable, base, wordsPerRow);
+                top = Math.min(top, y);
+                bottom = y;
+            }
+        }
+        fillRows(reached, passable, wordsPerRow, height, diagonal, top, bottom);
+    }
+
+    /**
+     * Sweeps until stable, given that only rows {@code top..bottom} hold reached cells, and every row
+     * is already spread sideways. Sweeps only visit the rows reached so far plus one.
+     *
+     * @return the rows holding reached cells in the end, as {@code top << 32 | bottom}
+     */
+    private static long fillRows(long[] reached, long[] passable, int wordsPerRow, int height, boolean diagonal,
+                                 int top, int bottom) {
+        if (top > bottom) {
+            return ((long) height << 32) | 0xffffffffL;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int y = top + 1; y < height && y <= bottom + 1; y++) {
+                if (spill(reached, passable, (y - 1) * wordsPerRow, y * wordsPerRow, wordsPerRow, diagonal)) {
+                    changed = true;
+                    bottom = Math.max(bottom, y);
+                }
+            }
+            for (int y = bottom - 1; y >= 0 && y >= top - 1; y--) {
+                if (spill(reached, passable, (y + 1) * wordsPerRow, y * wordsPerRow, wordsPerRow, diagonal)) {
+                    changed = true;
+                    top = Math.min(top, y);
+                }
+            }
+        }
+        return ((long) top << 32) | bottom;
+    }
+
+    /**
+     * @return mask of the island (8-connected land) at the given land cell
+     */
+    public static long[] island(LandGrid grid, int x, int y) {
+        Preconditions.checkArgument(grid.isLand(x, y), "Point " + x + ":" + y + " is not land");
+        final long[] reached = new long[grid.words().length];
+        final int wordsPerRow = grid.getWordsPerRow();
+        reached[y * wordsPerRow + (x >>> 6)] = 1L << x;
+        spreadRow(reached, grid.words(), y * wordsPerRow, wordsPerRow);
+        fillRows(reached, grid.words(), wordsPerRow, grid.getHeight(), true, y, y);
+        return reached;
+    }
+
+    /**
+     * @return mask of the ocean: water 4-connected to the map edge
+     */
+    public static long[] ocean(LandGrid grid) {
+        return outside(grid, water(grid));
+    }
+
+    /**
+     * @return mask of the lakes of the given island: cells not on it that are cut off from the map edge by it,
+     * including any islands lying in those lakes
+     */
+    public static long[] lakes(LandGrid grid, long[] island) {
+        final long[] notIsland = complement(grid, island);
+        final long[] outside = outside(grid, notIsland);
+        for (int w = 0; w < outside.length; w++) {
+            notIsland[w] &= ~outside[w];
+        }
+        return notIsland;
+    }
+
+    /**
+     * @return number of lakes of the island at the given land cell, as the 4-connected regions of its lake mask
+     */
+    public static int lakeCount(LandGrid grid, int x, int y) {
+        final long[] lakes = lakes(grid, island(grid, x, y));
+        final long[] lake = new long[lakes.length];
+        final int wordsPerRow = grid.getWordsPerRow();
+        int count = 0;
+        for (int w = 0; w < lakes.length; w++) {
+            while (lakes[w] != 0) {
+                // fill one lake from its first cell, then take it out of the mask:
+                final int row = w / wordsPerRow;
+                lake[w] = Long.lowestOneBit(lakes[w]);
+                spreadRow(lake, lakes, row * wordsPerRow, wordsPerRow);
+                final long rows = fillRows(lake, lakes, wordsPerRow, grid.getHeight(), false, row, row);
+                for (int v = (int) (rows >>> 32) * wordsPerRow; v < ((int) rows + 1) * wordsPerRow; v++) {
+                    lakes[v] &= ~lake[v];
+                    lake[v] = 0;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static long cardinality(long[] mask) {
+        long count = 0;
+        for (long word: mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return cells of {@code passable} 4-connected to the map edge through passable cells
+     */
+    private static long[] outside(LandGrid grid, long[] passable) {
+        final int wordsPerRow = grid.getWordsPerRow();
+        final int height = grid.getHeight();
+        final long[] reached = new long[passable.length];
+        if (height == 0 || wordsPerRow == 0) {
+            return reached;
+        }
+        final int lastX = grid.getWidth() - 1;
+        for (int w = 0; w < wordsPerRow; w++) {
+            reached[w] = -1L;
+            reached[(height - 1) * wordsPerRow + w] = -1L;
+        }
+        for (int y = 0; y < height; y++) {
+            reached[y * wordsPerRow] |= 1L;
+            reached[y * wordsPerRow + (lastX >>> 6)] |= 1L << lastX;
+        }
+        fill(reached, passable, grid.getWidth(), height, false);
+        return reached;
+    }
+
+    /**
+     * @return mask of all water cells, for filling water from seeds of one's own
+     */
+    public static long[] water(LandGrid grid) {
+        return complement(grid, grid.words());
+    }
+
+    private static long[] complement(LandGrid grid, long[] mask) {
+        final int wordsPerRow = grid.getWordsPerRow();
+        final long[] result = new long[mask.length];
+        for (int w = 0; w < mask.length; w++) {
+            result[w] = ~mask[w] & validBits(grid.getWidth(), w % wordsPerRow);
+        }
+        return result;
+    }
+
+    private static long validBits(int width, int wordInRow) {
+        final int bits = width - (wordInRow << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Lets the source row spill into the target row, then spreads the target row sideways.
+     *
+     * @return whether the target row grew
+     */
+    private static boolean spill(long[] reached, long[] passable, int sourceBase, int targetBase, int wordsPerRow,
+                                 boolean diagonal) {
+        boolean grew = false;
+        for (int w = 0; w < wordsPerRow; w++) {
+            long source = reached[sourceBase + w];
+            if (diagonal) {
+                final long left = (w > 0) ? reached[sourceBase + w - 1] >>> 63 : 0;
+                final long right = (w + 1 < wordsPerRow) ? reached[sourceBase + w + 1] << 63 : 0;
+                source |= (source << 1) | left | (source >>> 1) | right;
+            }
+            final long added = source & passable[targetBase + w] & ~reached[targetBase + w];
+            if (added != 0) {
+                reached[targetBase + w] |= added;
+                grew = true;
+            }
+        }
+        if (grew) {
+            spreadRow(reached, passable, targetBase, wordsPerRow);
+        }
+        return grew;
+    }
+
+    private static void spreadRow(long[] reached, long[] passable, int base, int wordsPerRow) {
+        // towards higher x, carrying bit 63 into bit 0 of the next word:
+        long carry = 0;
+        for (int w = 0; w < wordsPerRow; w++) {
+            final long open = passable[base + w];
+            final long filled = spreadUp(reached[base + w] | (carry & open), open);
+            reached[base + w] = spreadDown(filled, open);
+            carry = reached[base + w] >>> 63;
+        }
+        // and back towards lower x, carrying bit 0 into bit 63 of the previous word:
+        carry = 0;
+        for (int w = wordsPerRow - 1; w >= 0; w--) {
+            final long open = passable[base + w];
+            final long seeds = reached[base + w] | (carry & open);
+            reached[base + w] = spreadUp(spreadDown(seeds, open), open);
+            carry = (reached[base + w] & 1L) << 63;
+        }
+    }
+
+    private static long spreadUp(long g, long p) {
+        g |= p & (g << 1);
+        p &= p << 1;
+        g |= p & (g << 2);
+        p &= p << 2;
+        g |= p & (g << 4);
+        p &= p << 4;
+        g |= p & (g << 8);
+        p &= p << 8;
+        g |= p & (g << 16);
+        p &= p << 16;
+        g |= p & (g << 32);
+        return g;
+    }
+
+    private static long spreadDown(long g, long p) {
+        g |= p & (g >>> 1);
+        p &= p >>> 1;
+        g |= p & (g >>> 2);
+        p &= p >>> 2;
+        g |= p & (g >>> 4);
+        p &= p >>> 4;
+        g |= p & (g >>> 8);
+        p &= p >>> 8;
+        g |= p & (g >>> 16);
+        p &= p >>> 16;
+        g |= p & (g >>> 32);
+        return g;
+    }
+}
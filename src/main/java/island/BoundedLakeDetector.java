@@ -0,0 +1,205 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Counts the lakes of one island while touching only the island and the water next to it.
+ * <p>
+ * The island is flooded first (8-connected land), which gives its bounding box. Every lake borders the island,
+ * so regions are flooded only from its shore, 4-connected through cells that are not on the island.
+ * A region that reaches the border of the bounding box, or meets a region known to do so, leads outside,
+ * so its fill stops at once; a region that runs out of cells inside the box is a lake.
+ * With a per-region cap, a fill that grows past it stops as well and the region is reported as undecided.
+ * <p>
+ * One stamp array of the map's size is reused by all calls, so a detector is not thread-safe.
+ */
+public final class BoundedLakeDetector {
+    private static final byte OUTSIDE = 1;
+    private static final byte LAKE = 2;
+    private static final byte CAPPED = 3;
+    private static final byte JOINED_CAPPED = 4;
+
+    private final LandGrid grid;
+    @Getter
+    private final int maxCellsPerRegion;
+    private final IntRingQueue queue = new IntRingQueue();
+    // island cells get stamp base, region r gets base + 1 + r; anything below base is from an earlier call:
+    private final int[] stamps;
+    private int base = 1;
+    // the detection that last flooded each land cell; region floods never touch it, unlike the stamps:
+    private final int[] islandIds;
+    private int detections;
+    private byte[] regionClass = new byte[16];
+    private int[] islandCells = new int[16];
+    private int regionCells; // cells dequeued by the last region flood
+
+    public BoundedLakeDetector(LandGrid grid) {
+        this(grid, Integer.MAX_VALUE);
+    }
+
+    public BoundedLakeDetector(LandGrid grid, int maxCellsPerRegion) {
+        Preconditions.checkArgument(maxCellsPerRegion > 0, "Region cap must be positive: " + maxCellsPerRegion);
+        this.grid = grid;
+        this.maxCellsPerRegion = maxCellsPerRegion;
+        this.stamps = new int[grid.cellCount()];
+        this.islandIds = new int[grid.cellCount()];
+    }
+
+    public LakeDetection detect(int x, int y) {
+        Preconditions.checkArgument(grid.isLand(x, y), "Point " + x + ":" + y + " is not land");
+        if (base > Integer.MAX_VALUE - 2 - stamps.length) {
+            Arrays.fill(stamps, 0);
+            base = 1;
+        }
+        if (detections == Integer.MAX_VALUE) {
+            Arrays.fill(islandIds, 0);
+            detections = 0;
+        }
+        detections++;
+        final MinMaxPointTracker bounds = new MinMaxPointTracker();
+        final int islandCellCount = floodIsland(grid.index(x, y), bounds);
+
+        final int width = grid.getWidth();
+        int regions = 0;
+        int lakes = 0;
+        int undecided = 0;
+        long explored = islandCellCount;
+        for (int i = 0; i < islandCellCount; i++) {
+            final int cell = islandCells[i];
+            final int cx = cell % width;
+            final int cy = cell / width;
+            for (int side = 0; side < 4; side++) {
+                final int nx = cx + ((side == 1) ? 1 : (side == 3) ? -1 : 0);
+                final int ny = cy + ((side == 0) ? -1 : (side == 2) ? 1 : 0);
+                if (nx < 0 || ny < 0 || nx >= width || ny >= grid.getHeight()) {
+                    continue;
+                }
+                final int neighbour = ny * width + nx;
+                if (stamps[neighbour] >= base) {
+                    continue; // island, or a region flooded already
+                }
+                if (regions == regionClass.length) {
+                    regionClass = Arrays.copyOf(regionClass, regions << 1);
+                }
+                final byte regionType = floodRegion(neighbour, base + 1 + regions, bounds);
+                explored += regionCells;
+                regionClass[regions++] = (regionType == JOINED_CAPPED) ? CAPPED : regionType;
+                if (regionType == LAKE) {
+                    lakes++;
+                } else if (regionType == CAPPED) {
+                    undecided++;
+                }
+            }
+        }
+        base += 2 + regions;
+        return new LakeDetection(lakes, undecided, islandCellCount, explored, bounds);
+    }
+
+    /**
+     * Lake counts for many clicks at once, in input order, {@code -1} for clicks on water.
+     * Each island is detected once, however many clicks fall on it: a click on an island flooded
+     * earlier in the batch finds its answer through the island id of its cell, so the work is bounded
+     * by the islands clicked and the water next to them.
+     */
+    public int[] lakeCounts(int[] xs, int[] ys) {
+        Preconditions.checkArgument(xs.length == ys.length, "Got " + xs.length + " x and " + ys.length + " y");
+        if (detections > Integer.MAX_VALUE - xs.length) {
+            Arrays.fill(islandIds, 0);
+            detections = 0;
+        }
+        final int firstDetection = detections; // ids above it were flooded by this batch
+        final int[] counts = new int[xs.length];
+        int[] islandCounts = new int[16];
+        for (int i = 0; i < xs.length; i++) {
+            final int x = xs[i];
+            final int y = ys[i];
+            Preconditions.checkArgument(x >= 0 && y >= 0 && x < grid.getWidth() && y < grid.getHeight(),
+                    "Click %s:%s is outside the map", x, y);
+            if (!grid.isLand(x, y)) {
+                counts[i] = -1;
+                continue;
+            }
+            final int island = islandIds[grid.index(x, y)] - firstDetection;
+            if (island > 0) {
+                counts[i] = islandCounts[island - 1];
+                continue;
+            }
+            counts[i] = detect(x, y).getLakeCount();
+            final int detected = detections - firstDetection;
+            if (detected > islandCounts.length) {
+                islandCounts = Arrays.copyOf(islandCounts, islandCounts.length << 1);
+            }
+            islandCounts[detected - 1] = counts[i];
+        }
+        return counts;
+    }
+
+    private int floodIsland(int start, MinMaxPointTracker bounds) {
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        int count = 0;
+        queue.clear();
+        stamps[start] = base;
+        queue.offer(start);
+        while (!queue.isEmpty()) {
+            final int cell = queue.poll();
+            if (count == islandCells.length) {
+                islandCells = Arrays.copyOf(islandCells, count << 1);
+            }
+            islandCells[count++] = cell;
+            islandIds[cell] = detections;
+            final int x = cell % width;
+            final int y = cell / width;
+            bounds.accept(x, y);
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+                for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                    final int neighbour = ny * width + nx;
+                    if (stamps[neighbour] != base && grid.isLand(nx, ny)) {
+                        stamps[neighbour] = base;
+                        queue.offer(neighbour);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private byte floodRegion(int start, int stamp, MinMaxPointTracker bounds) {
+        final int width = grid.getWidth();
+        queue.clear();
+        stamps[start] = stamp;
+        queue.offer(start);
+        regionCells = 0;
+        while (!queue.isEmpty()) {
+            final int cell = queue.poll();
+            if (++regionCells > maxCellsPerRegion) {
+                return CAPPED;
+            }
+            final int x = cell % width;
+            final int y = cell / width;
+            if (!bounds.isStrictlyInside(x, y)) {
+                return OUTSIDE; // on the box border or beyond it, so next to the outside and not on the island
+            }
+            // strictly inside the box, so all four neighbours are in the map:
+            for (int side = 0; side < 4; side++) {
+                final int neighbour = (side == 0) ? cell - width : (side == 1) ? cell + 1
+                        : (side == 2) ? cell + width : cell - 1;
+                final int neighbourStamp = stamps[neighbour];
+                if (neighbourStamp == base || neighbourStamp == stamp) {
+                    continue;
+                }
+                if (neighbourStamp > base) {
+                    // an earlier region of this island that stopped early, so it is not a lake:
+                    final byte other = regionClass[neighbourStamp - base - 1];
+                    return (other == CAPPED) ? JOINED_CAPPED : other;
+                }
+                stamps[neighbour] = stamp;
+                queue.offer(neighbour);
+            }
+        }
+        return LAKE;
+    }
+}
@@ -0,0 +1,215 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Connected components of a whole map under the README rules: land is 8-connected (a diagonal land pair
+ * is an isthmus), water is 4-connected, and everything beyond the map edge is ocean.
+ * Components are numbered in raster order of their first (top-most, then left-most) cell.
+ * <p>
+ * Containment needs no extra traversal: the cell north of a component's first cell lies outside of the
+ * component, and it cannot belong to anything the component encloses, so it belongs to the enclosing one.
+ */
+public final class ComponentLabeling {
+    public static final int NO_PARENT = -1;
+
+    @Getter
+    private final LandGrid grid;
+    private final int[] labels;
+    @Getter
+    private final int componentCount;
+    private final int[] firstCell;
+    private final int[] parent;
+    private final boolean[] ocean;
+    private final int[] lakeCounts;
+
+    private ComponentLabeling(LandGrid grid, int[] labels, int componentCount, int[] firstCell) {
+        this.grid = grid;
+        this.labels = labels;
+        this.componentCount = componentCount;
+        this.firstCell = firstCell;
+        this.parent = new int[componentCount];
+        this.ocean = new boolean[componentCount];
+        markOcean();
+        linkParents();
+        this.lakeCounts = countLakes();
+    }
+
+    /**
+     * Labels every cell with a BFS flood per component, O(width * height) in total.
+     */
+    public static ComponentLabeling label(LandGrid grid) {
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        final int[] labels = new int[grid.cellCount()];
+        Arrays.fill(labels, -1);
+        int[] firstCell = new int[16];
+        int componentCount = 0;
+
+        final IntRingQueue queue = new IntRingQueue();
+        for (int start = 0; start < labels.length; start++) {
+            if (labels[start] >= 0) {
+                continue;
+            }
+            final int component = componentCount++;
+            if (component == firstCell.length) {
+                firstCell = Arrays.copyOf(firstCell, component << 1);
+            }
+            firstCell[component] = start;
+            final boolean land = grid.isLand(start);
+            labels[start] = component;
+            queue.offer(start);
+            while (!queue.isEmpty()) {
+                final int cell = queue.poll();
+                final int x = cell % width;
+                final int y = cell / width;
+                for (int dy = -1; dy <= 1; dy++) {
+                    final int ny = y + dy;
+                    if (ny < 0 || ny >= height) {
+                        continue;
+                    }
+                    for (int dx = -1; dx <= 1; dx++) {
+                        final int nx = x + dx;
+                        if (nx < 0 || nx >= width || (dx != 0 && dy != 0 && !land) || (dx == 0 && dy == 0)) {
+                            continue;
+                        }
+                        final int neighbour = ny * width + nx;
+                        if (labels[neighbour] < 0 && grid.isLand(nx, ny) == land) {
+                            labels[neighbour] = component;
+                            queue.offer(neighbour);
+                        }
+                    }
+                }
+            }
+        }
+        return new ComponentLabeling(grid, labels, componentCount, Arrays.copyOf(firstCell, componentCount));
+    }
+
+    /**
+     * Converts, in place, a union-find forest whose parents always precede their children in raster order
+     * into component labels.
+     */
+    static ComponentLabeling fromForest(LandGrid grid, int[] forest) {
+        int[] firstCell = new int[16];
+        int componentCount = 0;
+        for (int cell = 0; cell < forest.length; cell++) {
+            final int parent = forest[cell];
+            if (parent == cell) {
+                if (componentCount == firstCell.length) {
+                    firstCell = Arrays.copyOf(firstCell, componentCount << 1);
+                }
+                firstCell[componentCount] = cell;
+                forest[cell] = componentCount++;
+            } else {
+                forest[cell] = forest[parent]; // already relabeled, as parent < cell
+            }
+        }
+        return new ComponentLabeling(grid, forest, componentCount, Arrays.copyOf(firstCell, componentCount));
+    }
+
+    private void markOcean() {
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        for (int x = 0; x < width; x++) {
+            markOceanAt(x, 0);
+            markOceanAt(x, height - 1);
+        }
+        for (int y = 0; y < height; y++) {
+            markOceanAt(0, y);
+            markOceanAt(width - 1, y);
+        }
+    }
+
+    private void markOceanAt(int x, int y) {
+        if (x >= 0 && y >= 0 && x < grid.getWidth() && y < grid.getHeight() && !grid.isLand(x, y)) {
+            ocean[labels[grid.index(x, y)]] = true;
+        }
+    }
+
+    private void linkParents() {
+        final int width = grid.getWidth();
+        for (int component = 0; component < componentCount; component++) {
+            final int first = firstCell[component];
+            if (ocean[component]) {
+                parent[component] = NO_PARENT;
+            } else if (first < width || ocean[labels[first - width]]) {
+                // an island in the ocean (only land can start on the top row without being ocean):
+                parent[component] = NO_PARENT;
+            } else {
+                parent[component] = labels[first - width];
+            }
+        }
+    }
+
+    public int componentAt(int x, int y) {
+        return labels[grid.index(x, y)];
+    }
+
+    public int componentOfCell(int cell) {
+        return labels[cell];
+    }
+
+    public int firstCell(int component) {
+        return firstCell[component];
+    }
+
+    public boolean isLand(int component) {
+        return grid.isLand(firstCell[component]);
+    }
+
+    public boolean isOcean(int component) {
+        return ocean[component];
+    }
+
+    /**
+     * @return the component directly enclosing the given one, or {@link #NO_PARENT} for ocean components
+     * and for islands lying in the ocean.
+     */
+    public int parent(int component) {
+        return parent[component];
+    }
+
+    public boolean isLake(int component) {
+        return !isLand(component) && !ocean[component];
+    }
+
+    private int[] countLakes() {
+        final int[] counts = new int[componentCount];
+        for (int component = 0; component < componentCount; component++) {
+            if (isLake(component)) {
+                counts[parent[component]]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return number of lakes directly inside the given island; lakes of islands inside those lakes are not counted.
+     */
+    public int lakeCount(int component) {
+        return lakeCounts[component];
+    }
+
+    public int lakeCountAt(int x, int y) {
+        final int island = componentAt(x, y);
+        Preconditions.checkArgument(isLand(island), "Point " + x + ":" + y + " is not land");
+        return lakeCounts[island];
+    }
+
+    public List<IslandSummary> islandSummaries() {
+        final int width = grid.getWidth();
+        final List<IslandSummary> islands = new ArrayList<>();
+        for (int component = 0; component < componentCount; component++) {
+            if (isLand(component)) {
+                final int first = firstCell[component];
+                islands.add(new IslandSummary(first % width, first / width, lakeCounts[component]));
+            }
+        }
+        return islands;
+    }
+}
@@ -0,0 +1,13 @@
+package island;
+
+/**
+ * A payload that can print its export symbol without building a String for it.
+ */
+public interface ExportSymbol {
+    /**
+     * Appends what {@code toString()} returns, unless that is null.
+     *
+     * @return false if the cell has no symbol of its own and is printed as land or water
+     */
+    boolean appendSymbol(StringBuilder out);
+}
@@ -0,0 +1,260 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps islands of an editable map up to date under single-cell flips, and answers lake counts per island.
+ * <p>
+ * Islands are sets of a union-find over land cells (8-connected, the smaller cell index is the root).
+ * Turning water into land only merges the neighbouring islands. Turning land into water can split an island,
+ * so its cells are re-linked from scratch, which only looks inside the island's bounding box.
+ * <p>
+ * The lakes of an island are the holes of its land: the regions of all other cells that are cut off from the
+ * outside of its bounding box, found by a {@link BoundedLakeDetector}. They only change when the island itself
+ * changes, so a count computed once is kept on the island until an edit merges, grows, shrinks or splits it.
+ */
+public final class IncrementalLakeCounter {
+    private static final int WATER = -1;
+
+    @Getter
+    private final LandGrid grid;
+    private final int[] forest;
+    private final Map<Integer, Island> islands = new HashMap<>();
+    private final List<IntConsumer> changeListeners = new ArrayList<>();
+    private final BoundedLakeDetector lakeDetector;
+
+    static final class Island {
+        int minX;
+        int minY;
+        int maxX;
+        int maxY;
+        int cellCount;
+        int lakeCount = -1; // not computed yet
+
+        Island(int x, int y) {
+            minX = maxX = x;
+            minY = maxY = y;
+            cellCount = 1;
+        }
+
+        void absorb(Island other) {
+            minX = Math.min(minX, other.minX);
+            minY = Math.min(minY, other.minY);
+            maxX = Math.max(maxX, other.maxX);
+            maxY = Math.max(maxY, other.maxY);
+            cellCount += other.cellCount;
+            lakeCount = -1;
+        }
+    }
+
+    public IncrementalLakeCounter(LandGrid grid) {
+        this.grid = grid;
+        this.forest = new int[grid.cellCount()];
+        this.lakeDetector = new BoundedLakeDetector(grid);
+        final int width = grid.getWidth();
+        for (int cell = 0; cell < forest.length; cell++) {
+            forest[cell] = grid.isLand(cell) ? cell : WATER;
+        }
+        for (int cell = 0; cell < forest.length; cell++) {
+            if (forest[cell] != WATER) {
+                linkToScannedNeighbours(cell % width, cell / width);
+            }
+        }
+        for (int cell = 0; cell < forest.length; cell++) {
+            if (forest[cell] != WATER) {
+                include(find(cell), cell % width, cell / width);
+            }
+        }
+    }
+
+    public int islandCount() {
+        return islands.size();
+    }
+
+    /**
+     * @return id of the island at the given land cell; stays the same until an edit changes that island.
+     */
+    public int islandAt(int x, int y) {
+        Preconditions.checkArgument(grid.isLand(x, y), "Point " + x + ":" + y + " is not land");
+        return find(grid.index(x, y));
+    }
+
+    /**
+     * Registers a callback receiving the id of every island that an edit merges, grows, shrinks, splits or creates.
+     */
+    public void addChangeListener(IntConsumer listener) {
+        changeListeners.add(listener);
+    }
+
+    public int lakeCountAt(int x, int y) {
+        final int root = islandAt(x, y);
+        final Island island = islands.get(root);
+        if (island.lakeCount < 0) {
+            island.lakeCount = lakeDetector.detect(root % grid.getWidth(), root / grid.getWidth()).getLakeCount();
+        }
+        return island.lakeCount;
+    }
+
+    public IslandStatistics statisticsAt(int x, int y) {
+        final int root = islandAt(x, y);
+        final Island island = islands.get(root);
+        final MinMaxPointTracker shoreBounds = new MinMaxPointTracker();
+        int shoreCells = 0;
+        for (int sy = Math.max(0, island.minY - 1); sy <= Math.min(grid.getHeight() - 1, island.maxY + 1); sy++) {
+            for (int sx = Math.max(0, island.minX - 1); sx <= Math.min(grid.getWidth() - 1, island.maxX + 1); sx++) {
+                if (!grid.isLand(sx, sy) && (isOnIsland(sx, sy - 1, root) || isOnIsland(sx + 1, sy, root)
+                        || isOnIsland(sx, sy + 1, root) || isOnIsland(sx - 1, sy, root))) {
+                    shoreCells++;
+                    shoreBounds.accept(sx, sy);
+                }
+            }
+        }
+        return new IslandStatistics(root, lakeCountAt(x, y), island.cellCount, shoreCells,
+                shoreBounds.getMinX(), shoreBounds.getMinY(), shoreBounds.getMaxX(), shoreBounds.getMaxY());
+    }
+
+    private boolean isOnIsland(int x, int y, int root) {
+        return isLand(x, y) && find(grid.index(x, y)) == root;
+    }
+
+    public void setLand(int x, int y, boolean land) {
+        // checked before anything changes, as removing land edits the forest before the grid:
+        Preconditions.checkState(!grid.isFrozen(), "Map is frozen");
+        if (grid.isLand(x, y) == land) {
+            return;
+        }
+        if (land) {
+            addLand(x, y);
+        } else {
+            removeLand(x, y);
+        }
+    }
+
+    private void addLand(int x, int y) {
+        final int cell = grid.index(x, y);
+        grid.setLand(x, y, true);
+        forest[cell] = cell;
+        islands.put(cell, new Island(x, y));
+        boolean isolated = true;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dy != 0) && isLand(x + dx, y + dy)) {
+                    union(cell, grid.index(x + dx, y + dy));
+                    isolated = false;
+                }
+            }
+        }
+        if (isolated) {
+            notifyChanged(cell); // a new island, which no union reported
+        }
+    }
+
+    private void removeLand(int x, int y) {
+        final int cell = grid.index(x, y);
+        final int root = find(cell);
+        final Island island = islands.remove(root);
+        notifyChanged(root);
+        final int width = grid.getWidth();
+        // the island's cells, found before the forest is touched:
+        final int[] cells = new int[island.cellCount - 1];
+        int count = 0;
+        for (int cy = island.minY; cy <= island.maxY; cy++) {
+            for (int cx = island.minX; cx <= island.maxX; cx++) {
+                final int c = cy * width + cx;
+                if (c != cell && forest[c] != WATER && find(c) == root) {
+                    cells[count++] = c;
+                }
+            }
+        }
+        assert count == cells.length;
+        grid.setLand(x, y, false);
+        forest[cell] = WATER;
+        for (int c: cells) {
+            forest[c] = c;
+        }
+        // cells are in raster order, so every neighbour linked to has already been reset:
+        for (int c: cells) {
+            linkToScannedNeighbours(c % width, c / width);
+        }
+        for (int c: cells) {
+            include(find(c), c % width, c / width);
+        }
+        for (int c: cells) {
+            if (forest[c] == c) {
+                notifyChanged(c);
+            }
+        }
+    }
+
+    private void linkToScannedNeighbours(int x, int y) {
+        final int cell = grid.index(x, y);
+        if (isLand(x - 1, y)) {
+            union(cell, cell - 1);
+        }
+        for (int dx = -1; dx <= 1; dx++) {
+            if (isLand(x + dx, y - 1)) {
+                union(cell, cell - grid.getWidth() + dx);
+            }
+        }
+    }
+
+    private void include(int root, int x, int y) {
+        final Island island = islands.get(root);
+        if (island == null) {
+            islands.put(root, new Island(x, y));
+        } else {
+            island.minX = Math.min(island.minX, x);
+            island.minY = Math.min(island.minY, y);
+            island.maxX = Math.max(island.maxX, x);
+            island.maxY = Math.max(island.maxY, y);
+            island.cellCount++;
+        }
+    }
+
+    private boolean isLand(int x, int y) {
+        return x >= 0 && y >= 0 && x < grid.getWidth() && y < grid.getHeight() && grid.isLand(x, y);
+    }
+
+    private int find(int cell) {
+        while (forest[cell] != cell) {
+            forest[cell] = forest[forest[cell]];
+            cell = forest[cell];
+        }
+        return cell;
+    }
+
+    private void union(int a, int b) {
+        final int rootA = find(a);
+        final int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        final int root = Math.min(rootA, rootB);
+        final int absorbed = Math.max(rootA, rootB);
+        forest[absorbed] = root;
+        final Island absorbedIsland = islands.remove(absorbed);
+        final Island rootIsland = islands.get(root);
+        if (absorbedIsland != null && rootIsland != null) {
+            rootIsland.absorb(absorbedIsland);
+        } else if (absorbedIsland != null) {
+            islands.put(root, absorbedIsland);
+        }
+        if (absorbedIsland != null || rootIsland != null) {
+            notifyChanged(absorbed);
+            notifyChanged(root);
+        }
+    }
+
+    private void notifyChanged(int root) {
+        for (IntConsumer listener: changeListeners) {
+            listener.accept(root);
+        }
+    }
+}
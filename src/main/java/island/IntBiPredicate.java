@@ -0,0 +1,9 @@
+package island;
+
+/**
+ * Primitive specialisation of {@link java.util.function.BiPredicate} for pairs of cell indices.
+ */
+@FunctionalInterface
+public interface IntBiPredicate {
+    boolean test(int first, int second);
+}
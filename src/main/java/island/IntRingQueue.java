@@ -0,0 +1,61 @@
+package island;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of ints kept in a power-of-two ring buffer that doubles when full.
+ * Once grown, the buffer is reused across {@link #clear()} calls, so a warmed-up queue does not allocate.
+ */
+public final class IntRingQueue {
+    private int[] buffer;
+    private int head;
+    private int size;
+
+    public IntRingQueue() {
+        this(1024);
+    }
+
+    public IntRingQueue(int initialCapacity) {
+        buffer = new int[Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1];
+    }
+
+    public void offer(int value) {
+        if (size == buffer.length) {
+            grow();
+        }
+        buffer[(head + size) & (buffer.length - 1)] = value;
+        size++;
+    }
+
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int value = buffer[head];
+        head = (head + 1) & (buffer.length - 1);
+        size--;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int[] newBuffer = new int[buffer.length << 1];
+        int firstPart = buffer.length - head;
+        System.arraycopy(buffer, head, newBuffer, 0, firstPart);
+        System.arraycopy(buffer, 0, newBuffer, firstPart, head);
+        buffer = newBuffer;
+        head = 0;
+    }
+}
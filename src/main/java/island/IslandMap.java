@@ -6,101 +6,326 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class IslandMap<T> {
     @Getter
-    private final int width;
+    private final LandGrid grid;
+
+    // Created cell by cell on first access; null when the map carries no payloads:
+    private final PayloadTable<T> payloads;
+
+    // Visited state for traversals of this map, reused across queries:
     @Getter
-    private final int height;
+    private final TraversalContextPool traversalContexts = new TraversalContextPool();
+
+    // Set once freezing is complete, so a thread that sees it also sees the shared queries:
+    private volatile boolean frozen;
+    private SharedIslandQueries sharedQueries;
+
+    // Created by the first edit or lake query, then kept in step with every edit; not used once frozen:
+    private IncrementalLakeCounter lakeCounter;
+    // Created by the first batch query; reads the grid as it is at each query; not used once frozen:
+    private BoundedLakeDetector lakeDetector;
+
+    public int getWidth() {
+        return grid.getWidth();
+    }
 
-    private final Point[][] mapData;
+    public int getHeight() {
+        return grid.getHeight();
+    }
 
     Point<T> getPoint(int x, int y) {
-        return mapData[y][x];
+        return new Point<>(payloads, x, y, grid.isLand(x, y));
+    }
+
+    int indexOf(Point<?> point) {
+        return grid.index(point.getX(), point.getY());
+    }
+
+    public static <T> IslandMap<T> fromGrid(LandGrid grid, BiFunction<Integer, Integer, T> payloadSupplier) {
+        return new IslandMap<>(grid, makePayloads(grid, payloadSupplier));
+    }
+
+    /**
+     * @return number of cells whose payload has been created so far
+     */
+    public int materializedPayloadCount() {
+        return payloads == null ? 0 : payloads.getMaterializedCount();
+    }
+
+    /**
+     * Loads a map file through a memory mapping; see {@link MappedMapReader}.
+     */
+    public static <T> IslandMap<T> readFromMappedFile(char waterSymbol, Path path) {
+        final MappedMapReader reader = new MappedMapReader();
+        final IslandMap<T> map = reader.read(waterSymbol, path);
+        reportLoad(map, reader.getBytesRead(), reader.getLoadNanos());
+        return map;
+    }
+
+    /**
+     * Loads a map saved by {@link BinaryMapFormat}.
+     */
+    @SneakyThrows
+    public static <T> IslandMap<T> readFromBinaryFile(Path path) {
+        final long start = System.nanoTime();
+        final IslandMap<T> map = BinaryMapFormat.readIslandMap(path);
+        reportLoad(map, Files.size(path), System.nanoTime() - start);
+        return map;
+    }
+
+    public static <T> IslandMap<T> readFromResource(char waterSymbol, Path path) {
+        return readFromResource(waterSymbol, path, null);
     }
 
     @SneakyThrows
     public static <T> IslandMap<T> readFromResource(char waterSymbol, Path path, BiFunction<Integer, Integer, T> payloadSupplier) {
-        Stream<String> lineStream = Files.lines(path);
-        return readFromStringStream(waterSymbol, lineStream, payloadSupplier);
+        final long start = System.nanoTime();
+        final IslandMap<T> map;
+        try (Stream<String> lineStream = Files.lines(path)) {
+            map = readFromStringStream(waterSymbol, lineStream, payloadSupplier);
+        }
+        reportLoad(map, Files.size(path), System.nanoTime() - start);
+        return map;
+    }
+
+    public static <T> IslandMap<T> readFromString(char waterSymbol, String mapContent) {
+        return readFromString(waterSymbol, mapContent, null);
     }
 
     @SneakyThrows
     public static <T> IslandMap<T> readFromString(char waterSymbol, String mapContent, BiFunction<Integer, Integer, T> payloadSupplier) {
+        final long start = System.nanoTime();
         String[] lineArray = mapContent.split("\n");
         Stream<String> lineStream = Arrays.stream(lineArray);
-        return readFromStringStream(waterSymbol, lineStream, payloadSupplier);
+        final IslandMap<T> map = readFromStringStream(waterSymbol, lineStream, payloadSupplier);
+        final long nanos = System.nanoTime() - start;
+        if (Metrics.current().isEnabled()) {
+            // the UTF-8 size, as for the same map read from a file:
+            reportLoad(map, mapContent.getBytes(StandardCharsets.UTF_8).length, nanos);
+        }
+        return map;
+    }
+
+    private static void reportLoad(IslandMap<?> map, long bytes, long nanos) {
+        final IslandMetrics metrics = Metrics.current();
+        if (metrics.isEnabled()) {
+            metrics.mapLoaded(bytes, nanos, map.estimateHeapBytes());
+        }
     }
 
     private static <T> IslandMap<T> readFromStringStream(char waterSymbol, Stream<String> mapContentStream,
                                                          BiFunction<Integer, Integer, T> payloadSupplier) {
-        val y = new AtomicInteger();
-        val width = new AtomicInteger(-1);
-        final Point<T>[][] data
-                = mapContentStream.map(x -> {
-                    Preconditions.checkArgument(!x.endsWith("\n"));
-                    return x;
-                }).map(line -> {
-                    if (!width.compareAndSet(-1, line.length())) {
-                        Preconditions.checkArgument(line.length() == width.get(),
-                                "Line y=" + y + " length mismatch: expected " + width + ", but found " + line.length());
-                    }
-                    return makeRow(waterSymbol, y.getAndIncrement(), line, payloadSupplier);
-        }).toArray(Point[][]::new);
-
-        return new IslandMap<>(width.get(), data.length, data);
+        final List<long[]> rows = new ArrayList<>();
+        int width = -1;
+        for (String line: (Iterable<String>) mapContentStream::iterator) {
+            Preconditions.checkArgument(!line.endsWith("\n"));
+            if (width < 0) {
+                width = line.length();
+            } else {
+                Preconditions.checkArgument(line.length() == width,
+                        "Line y=" + rows.size() + " length mismatch: expected " + width + ", but found " + line.length());
+            }
+            rows.add(makeRow(waterSymbol, line));
+        }
+
+        final LandGrid grid = new LandGrid(Math.max(width, 0), rows.size());
+        final long[] words = grid.words();
+        for (int y = 0; y < rows.size(); y++) {
+            System.arraycopy(rows.get(y), 0, words, y * grid.getWordsPerRow(), grid.getWordsPerRow());
+        }
+        return fromGrid(grid, payloadSupplier);
     }
 
     public static <T> IslandMap<T> buildFromPoints(int width, int height,
                 List<Point<T>> list, BiFunction<Integer, Integer, T> payloadSupplier) {
-        final Point<T>[][] data = new Point[height][width];
+        final LandGrid grid = new LandGrid(width, height);
         for (Point<T> point: list) {
-            val x = point.getX();
-            val y = point.getY();
-            data[y][x] = new Point<>(x, y, true, payloadSupplier.apply(x, y));
-        }
-        for (int y=0; y<height; y++) {
-            for (int x=0; x<width; x++) {
-                if (data[y][x] == null) {
-                    data[y][x] = new Point<>(x, y, false, payloadSupplier.apply(x, y));
-                }
-            }
+            grid.setLand(point.getX(), point.getY(), true);
         }
-        return new IslandMap<>(width, height, data);
+        return new IslandMap<>(grid, makePayloads(grid, payloadSupplier));
     }
 
-    private static <P> Point<P>[] makeRow(char waterSymbol, int y, String line, BiFunction<Integer, Integer, P> payloadSupplier) {
-        Point<P>[] row = new Point[line.length()];
+    private static long[] makeRow(char waterSymbol, String line) {
+        long[] row = new long[(line.length() + 63) >>> 6];
         for (int x = 0; x<line.length(); x++) {
-            char c = line.charAt(x);
-            boolean isLand = (c != waterSymbol);
-            P payload = payloadSupplier.apply(x, y);
-            row[x] = new Point<>(x, y, isLand, payload);
+            if (line.charAt(x) != waterSymbol) {
+                row[x >>> 6] |= 1L << x;
+            }
         }
         return row;
     }
 
+    private static <P> PayloadTable<P> makePayloads(LandGrid grid, BiFunction<Integer, Integer, P> payloadSupplier) {
+        return payloadSupplier == null ? null : new PayloadTable<>(grid, payloadSupplier);
+    }
+
+    /**
+     * Turns a cell into land or water. Labelings taken before the edit are not updated.
+     */
+    public void setLand(int x, int y, boolean land) {
+        Preconditions.checkState(!frozen, "Map is frozen");
+        incrementalLakes().setLand(x, y, land);
+    }
+
+    /**
+     * Makes the map and its grid read-only for good, and indexes it for {@link #sharedQueries()}, so the map
+     * can be shared between threads. Lake queries of a frozen map are answered from that index; the single-thread
+     * {@link #incrementalLakes()} counter is no longer available. Payloads can still be created, from any thread.
+     */
+    public synchronized void freeze() {
+        if (frozen) {
+            return;
+        }
+        grid.freeze();
+        sharedQueries = new SharedIslandQueries(this);
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Freezes the map and indexes it for queries from many threads at once.
+     */
+    public SharedIslandQueries sharedQueries() {
+        freeze();
+        return sharedQueries;
+    }
+
+    /**
+     * Lake count of the island at the given land cell, kept up to date under {@link #setLand} edits.
+     */
+    public int lakeCountAt(int x, int y) {
+        if (frozen) {
+            return sharedQueries.lakeCountAt(x, y);
+        }
+        return incrementalLakes().lakeCountAt(x, y);
+    }
+
+    /**
+     * Lake counts of the islands at many clicks, in input order, {@code -1} for clicks on water;
+     * see {@link BoundedLakeDetector#lakeCounts}.
+     */
+    public int[] lakeCountsAt(int[] xs, int[] ys) {
+        if (frozen) {
+            return sharedQueries.lakeCountsAt(xs, ys);
+        }
+        if (lakeDetector == null) {
+            lakeDetector = new BoundedLakeDetector(grid);
+        }
+        return lakeDetector.lakeCounts(xs, ys);
+    }
+
+    /**
+     * The editable lake counter of this map, for one thread at a time.
+     *
+     * @throws IllegalStateException if the map is frozen
+     */
+    public IncrementalLakeCounter incrementalLakes() {
+        Preconditions.checkState(!frozen, "Map is frozen");
+        if (lakeCounter == null) {
+            lakeCounter = new IncrementalLakeCounter(grid);
+        }
+        return lakeCounter;
+    }
+
+    public NestingTree nestingTree() {
+        return NestingTree.build(labelComponents());
+    }
+
+    /**
+     * Distance to the shore of every lake cell and per-lake areas, in O(width * height).
+     */
+    public LakeAnalysis analyzeLakes() {
+        return LakeAnalysis.analyze(labelComponents());
+    }
+
+    public ComponentLabeling labelComponents() {
+        return UnionFindLabeler.label(grid);
+    }
+
+    public ComponentLabeling labelComponents(ForkJoinPool pool) {
+        return ParallelLabeler.label(grid, pool);
+    }
+
+    /**
+     * Lake counts of all islands of the map in one O(width * height) pass, in raster order of the islands.
+     */
+    public List<IslandSummary> countLakes() {
+        return labelComponents().islandSummaries();
+    }
+
+    /**
+     * Shallow heap footprint of the map: the bit grid plus the payload pages created so far
+     * (payload objects themselves are owned by the caller and not counted).
+     */
+    public long estimateHeapBytes() {
+        long bytes = 24 + grid.heapBytes();
+        if (payloads != null) {
+            bytes += payloads.heapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends the export symbol of a cell: its payload's symbol, or the land or water symbol if there is none.
+     * A cell whose payload was never created is asked of a fresh payload, which is not kept,
+     * so the output is the same whether payloads were touched or not.
+     */
+    void appendCell(StringBuilder out, int x, int y, char waterSymbol, char landSymbol) {
+        if (!appendPayloadSymbol(out, x, y)) {
+            out.append(grid.isLand(x, y) ? landSymbol : waterSymbol);
+        }
+    }
+
+    /**
+     * @return false, appending nothing, if the cell has no payload symbol
+     */
+    boolean appendPayloadSymbol(StringBuilder out, int x, int y) {
+        if (payloads == null) {
+            return false;
+        }
+        final T payload = payloads.peekOrFresh(x, y);
+        if (payload instanceof ExportSymbol) {
+            return ((ExportSymbol) payload).appendSymbol(out);
+        } else if (payload != null) {
+            final String payloadSymbol = payload.toString();
+            if (payloadSymbol != null) {
+                out.append(payloadSymbol);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the map has a payload supplier, which is the only way for a cell to have a payload symbol
+     */
+    boolean hasPayloads() {
+        return payloads != null;
+    }
+
     String export(char waterSymbol, char landSymbol) {
+        val width = getWidth();
+        val height = getHeight();
         StringBuilder sb = new StringBuilder(height * (width + 1));
         for (int y=0; y<height; y++) {
             for (int x=0; x<width; x++) {
-                Point<T> point = getPoint(x, y);
-                T payload = point.getMutablePayload();
-                String payloadSymbol = payload.toString();
-                if (payloadSymbol == null) {
-                    sb.append(point.isLand() ? landSymbol : waterSymbol);
-                } else {
-                    sb.append(payloadSymbol);
-                }
+                appendCell(sb, x, y, waterSymbol, landSymbol);
             }
             sb.append('\n');
         }
@@ -108,10 +333,10 @@ public class IslandMap<T> {
     }
 
     Optional<Point<T>> safeGetPoint(int x, int y) {
-        if (x < 0 || x >= width) {
+        if (x < 0 || x >= getWidth()) {
             return Optional.empty();
         }
-        if (y < 0 || y >= height) {
+        if (y < 0 || y >= getHeight()) {
             return Optional.empty();
         }
         return Optional.of(getPoint(x, y));
@@ -0,0 +1,36 @@
+package island;
+
+/**
+ * Receives measurements from traversals and map loaders; install an implementation with {@link Metrics#install}.
+ * Every event is reported once, when the traversal or load is over, so the hot loops only bump local counters.
+ */
+public interface IslandMetrics {
+    IslandMetrics NOOP = new IslandMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * @return false to let callers skip measuring altogether, e.g. taking timestamps
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @param neighboursExamined in-map neighbours looked at, whether or not they were enqueued
+     * @param peakQueueDepth largest number of cells queued at once
+     * @param stoppedEarly whether a consumer returned false before the queue ran empty
+     */
+    default void traversalFinished(long cellsVisited, long neighboursExamined, int peakQueueDepth,
+                                   boolean stoppedEarly, long nanos) {
+    }
+
+    /**
+     * @param allocatedBytes estimate of the heap the loaded map keeps, see {@link IslandMap#estimateHeapBytes}
+     */
+    default void mapLoaded(long bytes, long nanos, long allocatedBytes) {
+    }
+}
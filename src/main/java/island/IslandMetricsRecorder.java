@@ -0,0 +1,136 @@
+package island;
+
+import lombok.SneakyThrows;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates {@link IslandMetrics} events in striped counters, cheap to update from many threads,
+ * and exposes the totals and maxima as an MXBean.
+ */
+public final class IslandMetricsRecorder implements IslandMetrics, IslandMetricsRecorderMXBean {
+    private final LongAdder traversals = new LongAdder();
+    private final LongAdder cellsVisited = new LongAdder();
+    private final LongAdder neighboursExamined = new LongAdder();
+    private final LongAccumulator peakQueueDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder earlyTerminations = new LongAdder();
+    private final LongAdder traversalNanos = new LongAdder();
+    private final LongAccumulator maxTraversalNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadedBytes = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAccumulator maxLoadNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder loadAllocatedBytes = new LongAdder();
+
+    @Override
+    public void traversalFinished(long cellsVisited, long neighboursExamined, int peakQueueDepth,
+                                  boolean stoppedEarly, long nanos) {
+        traversals.increment();
+        this.cellsVisited.add(cellsVisited);
+        this.neighboursExamined.add(neighboursExamined);
+        this.peakQueueDepth.accumulate(peakQueueDepth);
+        if (stoppedEarly) {
+            earlyTerminations.increment();
+        }
+        traversalNanos.add(nanos);
+        maxTraversalNanos.accumulate(nanos);
+    }
+
+    @Override
+    public void mapLoaded(long bytes, long nanos, long allocatedBytes) {
+        loads.increment();
+        loadedBytes.add(bytes);
+        loadNanos.add(nanos);
+        maxLoadNanos.accumulate(nanos);
+        loadAllocatedBytes.add(allocatedBytes);
+    }
+
+    /**
+     * Registers this recorder with the platform MBean server under {@code island:type=Metrics,name=<name>}.
+     */
+    @SneakyThrows
+    public ObjectName registerMBean(String name) {
+        final ObjectName objectName = new ObjectName("island:type=Metrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getTraversals() {
+        return traversals.sum();
+    }
+
+    @Override
+    public long getCellsVisited() {
+        return cellsVisited.sum();
+    }
+
+    @Override
+    public long getNeighboursExamined() {
+        return neighboursExamined.sum();
+    }
+
+    @Override
+    public long getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    @Override
+    public long getEarlyTerminations() {
+        return earlyTerminations.sum();
+    }
+
+    @Override
+    public long getTraversalNanos() {
+        return traversalNanos.sum();
+    }
+
+    @Override
+    public long getMaxTraversalNanos() {
+        return maxTraversalNanos.get();
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    @Override
+    public long getLoadedBytes() {
+        return loadedBytes.sum();
+    }
+
+    @Override
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    @Override
+    public long getMaxLoadNanos() {
+        return maxLoadNanos.get();
+    }
+
+    @Override
+    public long getLoadAllocatedBytes() {
+        return loadAllocatedBytes.sum();
+    }
+
+    @Override
+    public void reset() {
+        traversals.reset();
+        cellsVisited.reset();
+        neighboursExamined.reset();
+        peakQueueDepth.reset();
+        earlyTerminations.reset();
+        traversalNanos.reset();
+        maxTraversalNanos.reset();
+        loads.reset();
+        loadedBytes.reset();
+        loadNanos.reset();
+        maxLoadNanos.reset();
+        loadAllocatedBytes.reset();
+    }
+}
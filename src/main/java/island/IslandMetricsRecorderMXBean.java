@@ -0,0 +1,29 @@
+package island;
+
+public interface IslandMetricsRecorderMXBean {
+    long getTraversals();
+
+    long getCellsVisited();
+
+    long getNeighboursExamined();
+
+    long getPeakQueueDepth();
+
+    long getEarlyTerminations();
+
+    long getTraversalNanos();
+
+    long getMaxTraversalNanos();
+
+    long getLoads();
+
+    long getLoadedBytes();
+
+    long getLoadNanos();
+
+    long getMaxLoadNanos();
+
+    long getLoadAllocatedBytes();
+
+    void reset();
+}
@@ -0,0 +1,58 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of {@link IslandStatistics} keyed by island id, so repeated clicks on one island cost a lookup.
+ * The cache listens to the {@link IncrementalLakeCounter} of the map and drops exactly the islands an edit changes.
+ * Its size is bounded by an estimate of the heap taken per entry.
+ */
+public final class IslandQueryCache {
+    // IslandStatistics + map entry + boxed key, rounded up:
+    static final long ESTIMATED_ENTRY_BYTES = 128;
+
+    private final IncrementalLakeCounter islands;
+    private final Map<Integer, IslandStatistics> cache;
+    @Getter
+    private long hits;
+    @Getter
+    private long misses;
+
+    public IslandQueryCache(IncrementalLakeCounter islands, long maxBytes) {
+        Preconditions.checkArgument(maxBytes >= ESTIMATED_ENTRY_BYTES, "Cache too small: " + maxBytes + " bytes");
+        final long maxEntries = maxBytes / ESTIMATED_ENTRY_BYTES;
+        this.islands = islands;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, IslandStatistics> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        islands.addChangeListener(cache::remove);
+    }
+
+    public IslandStatistics query(int x, int y) {
+        final int islandId = islands.islandAt(x, y);
+        IslandStatistics statistics = cache.get(islandId);
+        if (statistics == null) {
+            misses++;
+            statistics = islands.statisticsAt(x, y);
+            cache.put(islandId, statistics);
+        } else {
+            hits++;
+        }
+        return statistics;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long estimatedBytes() {
+        return cache.size() * ESTIMATED_ENTRY_BYTES;
+    }
+}
@@ -0,0 +1,20 @@
+package island;
+
+import lombok.Value;
+
+/**
+ * Per-island query results: lakes, land cells, and the shore, i.e. the water cells next to the island
+ * (north, east, south or west of one of its cells) with their bounding box.
+ * The values are plain fields, so instances can be shared by caches and threads.
+ */
+@Value
+public class IslandStatistics {
+    int islandId;
+    int lakeCount;
+    int cellCount;
+    int shoreCellCount;
+    int shoreMinX;
+    int shoreMinY;
+    int shoreMaxX;
+    int shoreMaxY;
+}
@@ -0,0 +1,13 @@
+package island;
+
+import lombok.Value;
+
+/**
+ * Lake count of one island, identified by its first (top-most, then left-most) land cell.
+ */
+@Value
+public class IslandSummary {
+    int x;
+    int y;
+    int lakeCount;
+}
@@ -0,0 +1,136 @@
+package island;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Distance from every lake cell to the nearest land, with per-lake statistics, for a whole map in O(cells).
+ * <p>
+ * One multi-source BFS over water (4-connected, so it never leaves a lake) starts from all lake cells next to
+ * land at distance 1. Every lake cell is dequeued exactly once, in order of distance, and its lake's area,
+ * shore cell count, distance sum and maximum are accumulated right there, so no second pass is needed.
+ * Land inside a lake, such as an island in it, is shore too.
+ */
+public final class LakeAnalysis {
+    /** Distance of land cells. */
+    public static final int LAND = 0;
+    /** Distance of ocean cells, which have no shore of an island around them. */
+    public static final int OCEAN = -1;
+
+    private final ComponentLabeling labeling;
+    private final int[] distances;
+    // indexed by component, only meaningful for lakes:
+    private final int[] areas;
+    private final int[] shoreCells;
+    private final int[] maxDistances;
+    private final long[] distanceSums;
+
+    private LakeAnalysis(ComponentLabeling labeling) {
+        this.labeling = labeling;
+        final LandGrid grid = labeling.getGrid();
+        this.distances = new int[grid.cellCount()];
+        final int componentCount = labeling.getComponentCount();
+        this.areas = new int[componentCount];
+        this.shoreCells = new int[componentCount];
+        this.maxDistances = new int[componentCount];
+        this.distanceSums = new long[componentCount];
+        measure();
+    }
+
+    public static LakeAnalysis analyze(ComponentLabeling labeling) {
+        return new LakeAnalysis(labeling);
+    }
+
+    private void measure() {
+        final LandGrid grid = labeling.getGrid();
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        final IntRingQueue queue = new IntRingQueue();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int cell = y * width + x;
+                if (grid.isLand(x, y)) {
+                    distances[cell] = LAND;
+                } else if (!labeling.isLake(labeling.componentOfCell(cell))) {
+                    distances[cell] = OCEAN;
+                } else if (grid.isLand(x, y - 1) || grid.isLand(x + 1, y)
+                        || grid.isLand(x, y + 1) || grid.isLand(x - 1, y)) {
+                    // a lake never touches the map edge, so its neighbours are all inside the map
+                    distances[cell] = 1;
+                    queue.offer(cell);
+                } else {
+                    distances[cell] = Integer.MAX_VALUE; // not reached yet
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int cell = queue.poll();
+            final int distance = distances[cell];
+            final int lake = labeling.componentOfCell(cell);
+            areas[lake]++;
+            distanceSums[lake] += distance;
+            maxDistances[lake] = Math.max(maxDistances[lake], distance);
+            if (distance == 1) {
+                shoreCells[lake]++;
+            }
+            reach(queue, cell - width, distance);
+            reach(queue, cell + 1, distance);
+            reach(queue, cell + width, distance);
+            reach(queue, cell - 1, distance);
+        }
+    }
+
+    private void reach(IntRingQueue queue, int cell, int distance) {
+        if (distances[cell] == Integer.MAX_VALUE) {
+            distances[cell] = distance + 1;
+            queue.offer(cell);
+        }
+    }
+
+    public ComponentLabeling getLabeling() {
+        return labeling;
+    }
+
+    /**
+     * @return steps to the nearest land for a lake cell (1 next to it), {@link #LAND} or {@link #OCEAN} otherwise
+     */
+    public int distanceAt(int x, int y) {
+        return distances[labeling.getGrid().index(x, y)];
+    }
+
+    /**
+     * The distances of all cells, indexed {@code y * width + x}; the array is not copied.
+     */
+    public int[] distances() {
+        return distances;
+    }
+
+    public LakeStatistics lakeStatisticsAt(int x, int y) {
+        final int lake = labeling.componentAt(x, y);
+        Preconditions.checkArgument(labeling.isLake(lake), "Point " + x + ":" + y + " is not in a lake");
+        return statistics(lake);
+    }
+
+    /**
+     * @return statistics of every lake of the map, including lakes of islands in lakes, in raster order
+     */
+    public List<LakeStatistics> lakeStatistics() {
+        final List<LakeStatistics> lakes = new ArrayList<>();
+        for (int component = 0; component < labeling.getComponentCount(); component++) {
+            if (labeling.isLake(component)) {
+                lakes.add(statistics(component));
+            }
+        }
+        return lakes;
+    }
+
+    private LakeStatistics statistics(int lake) {
+        final int width = labeling.getGrid().getWidth();
+        final int first = labeling.firstCell(lake);
+        final int island = labeling.firstCell(labeling.parent(lake));
+        return new LakeStatistics(first % width, first / width, island % width, island / width,
+                areas[lake], shoreCells[lake], maxDistances[lake], (double) distanceSums[lake] / areas[lake]);
+    }
+}
@@ -0,0 +1,21 @@
+package island;
+
+import lombok.Value;
+
+/**
+ * Outcome of {@link BoundedLakeDetector#detect}: the lakes found, and how much of the map it took to find them.
+ */
+@Value
+public class LakeDetection {
+    int lakeCount;
+    /** Regions given up on at the per-region cap; each may or may not be a lake. */
+    int undecidedRegions;
+    int islandCellCount;
+    /** Island cells plus the cells of all regions flooded from its shore. */
+    long cellsExplored;
+    MinMaxPointTracker bounds;
+
+    public boolean isExact() {
+        return undecidedRegions == 0;
+    }
+}
@@ -0,0 +1,20 @@
+package island;
+
+import lombok.Value;
+
+/**
+ * Area and shore distances of one lake, from a {@link LakeAnalysis}.
+ * The lake is identified by its first (top-most, then left-most) cell; its shore cells are the lake cells
+ * next to land (north, east, south or west), i.e. those at distance 1.
+ */
+@Value
+public class LakeStatistics {
+    int x;
+    int y;
+    int islandX;
+    int islandY;
+    int area;
+    int shoreCellCount;
+    int maxDistance;
+    double meanDistance;
+}
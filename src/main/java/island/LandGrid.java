@@ -0,0 +1,80 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+/**
+ * Land/water mask packed one bit per cell.
+ * Rows are word-aligned: row {@code y} occupies words {@code [y * wordsPerRow, (y + 1) * wordsPerRow)},
+ * and cell {@code x} of a row is bit {@code x & 63} of word {@code x >>> 6}.
+ */
+public final class LandGrid {
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    @Getter
+    private final int wordsPerRow;
+
+    private final long[] words;
+    private volatile boolean frozen;
+
+    public LandGrid(int width, int height) {
+        Preconditions.checkArgument(width >= 0 && height >= 0, "Negative size: " + width + "x" + height);
+        Preconditions.checkArgument((long) width * height <= Integer.MAX_VALUE,
+                "Map of " + width + "x" + height + " cells is too large for an int cell index");
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    public int cellCount() {
+        return width * height;
+    }
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public boolean isLand(int x, int y) {
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public boolean isLand(int index) {
+        return isLand(index % width, index / width);
+    }
+
+    public void setLand(int x, int y, boolean land) {
+        Preconditions.checkState(!frozen, "Grid is frozen");
+        int w = y * wordsPerRow + (x >>> 6);
+        if (land) {
+            words[w] |= 1L << x;
+        } else {
+            words[w] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Makes the grid read-only for good: {@link #setLand} throws {@link IllegalStateException} from now on.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Raw word storage, shared with the word-parallel algorithms of this package.
+     */
+    long[] words() {
+        return words;
+    }
+
+    public long heapBytes() {
+        // object header + fields, plus the long[] header and payload:
+        return 32 + 16 + 8L * words.length;
+    }
+}
@@ -0,0 +1,9 @@
+package island;
+
+/**
+ * Primitive specialisation of {@link java.util.function.BiPredicate} for pairs of {@code long} cell indices.
+ */
+@FunctionalInterface
+public interface LongBiPredicate {
+    boolean test(long first, long second);
+}
@@ -0,0 +1,229 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Labels every map file of a directory, overlapping loading with labeling: I/O threads parse files with a
+ * {@link MappedMapReader} into a bounded queue, and CPU threads take grids from it, label them with
+ * {@link UnionFindLabeler} and hand {@link MapFileStatistics} to a consumer, in completion order.
+ * <p>
+ * A full queue blocks the I/O threads, so at most {@code queueCapacity + ioThreads + cpuThreads} grids
+ * are in memory at once, whatever the number of files. A file that fails is reported with its error
+ * and does not stop the batch, whatever it throws, errors included.
+ */
+public final class MapBatchProcessor {
+    public enum Format {
+        JSON_LINES,
+        CSV
+    }
+
+    @Value
+    public static class Report {
+        int fileCount;
+        int failedCount;
+        long islandCount;
+        long lakeCount;
+        long nanos;
+
+        public double filesPerSecond() {
+            return nanos == 0 ? 0 : fileCount / (nanos / 1e9);
+        }
+    }
+
+    private final char waterSymbol;
+    private final int ioThreads;
+    private final int cpuThreads;
+    private final int queueCapacity;
+
+    /**
+     * One I/O thread, one labeling thread per core and a queue of two grids per labeling thread.
+     */
+    public MapBatchProcessor(char waterSymbol) {
+        this(waterSymbol, 1, Runtime.getRuntime().availableProcessors(),
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public MapBatchProcessor(char waterSymbol, int ioThreads, int cpuThreads, int queueCapacity) {
+        Preconditions.checkArgument(ioThreads > 0 && cpuThreads > 0 && queueCapacity > 0,
+                "Thread counts and queue capacity must be positive");
+        this.waterSymbol = waterSymbol;
+        this.ioThreads = ioThreads;
+        this.cpuThreads = cpuThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Writes one line per file to the output: a JSON object, or a CSV record after the
+     * {@link MapFileStatistics#CSV_HEADER} line.
+     */
+    public Report process(Path directory, Appendable out, Format format) {
+        if (format == Format.CSV) {
+            appendLine(out, MapFileStatistics.CSV_HEADER);
+        }
+        return process(directory, statistics ->
+                appendLine(out, format == Format.CSV ? statistics.toCsv() : statistics.toJson()));
+    }
+
+    /**
+     * Processes the regular files of the directory, in name order; the consumer is called from the CPU threads,
+     * one call at a time.
+     */
+    @SneakyThrows
+    public Report process(Path directory, Consumer<MapFileStatistics> consumer) {
+        final List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        final long start = System.nanoTime();
+        final BlockingQueue<Loaded> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicLong islands = new AtomicLong();
+        final AtomicLong lakes = new AtomicLong();
+        // a failing consumer must not stop the CPU threads, or the I/O threads would block on a full queue:
+        final AtomicReference<Throwable> consumerError = new AtomicReference<>();
+        // and should a CPU thread die all the same, the loaders stop waiting once none is left:
+        final AtomicReference<Throwable> workerError = new AtomicReference<>();
+        final AtomicInteger liveWorkers = new AtomicInteger(cpuThreads);
+        // a lock of our own, as the caller may hold the consumer's monitor in threads we cannot see:
+        final Object consumerLock = new Object();
+
+        final ExecutorService cpuPool = Executors.newFixedThreadPool(cpuThreads);
+        final ExecutorService ioPool = Executors.newFixedThreadPool(ioThreads);
+        try {
+            for (int i = 0; i < cpuThreads; i++) {
+                cpuPool.execute(() -> work(queue, liveWorkers, workerError, statistics -> {
+                    if (statistics.isFailed()) {
+                        failed.incrementAndGet();
+                    } else {
+                        islands.addAndGet(statistics.getIslandCount());
+                        lakes.addAndGet(statistics.getLakeCount());
+                    }
+                    synchronized (consumerLock) {
+                        if (consumerError.get() == null) {
+                            try {
+                                consumer.accept(statistics);
+                            } catch (Throwable e) {
+                                consumerError.set(e);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Path file: files) {
+                ioPool.execute(() -> put(queue, load(file), liveWorkers));
+            }
+            ioPool.shutdown();
+            ioPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            for (int i = 0; i < cpuThreads; i++) {
+                put(queue, Loaded.END, liveWorkers);
+            }
+            cpuPool.shutdown();
+            cpuPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            ioPool.shutdownNow();
+            cpuPool.shutdownNow();
+        }
+        if (workerError.get() != null) {
+            throw workerError.get();
+        }
+        if (consumerError.get() != null) {
+            throw consumerError.get();
+        }
+        return new Report(files.size(), failed.get(), islands.get(), lakes.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * A parsed grid, or the error that stopped parsing.
+     */
+    @Value
+    private static class Loaded {
+        static final Loaded END = new Loaded(null, null, 0, null);
+
+        String file;
+        LandGrid grid;
+        long loadNanos;
+        Throwable error;
+    }
+
+    private Loaded load(Path file) {
+        final String name = file.getFileName().toString();
+        try {
+            final MappedMapReader reader = new MappedMapReader();
+            final LandGrid grid = reader.<Void>read(waterSymbol, file).getGrid();
+            return new Loaded(name, grid, reader.getLoadNanos(), null);
+        } catch (Throwable e) { // an OutOfMemoryError on a huge tile fails that tile only
+            return new Loaded(name, null, 0, e);
+        }
+    }
+
+    /**
+     * Waits for room in the queue as long as some CPU thread is alive to make it; drops the item otherwise.
+     */
+    @SneakyThrows
+    private static void put(BlockingQueue<Loaded> queue, Loaded loaded, AtomicInteger liveWorkers) {
+        while (!queue.offer(loaded, 10, TimeUnit.MILLISECONDS)) {
+            if (liveWorkers.get() == 0) {
+                return;
+            }
+        }
+    }
+
+    private static void work(BlockingQueue<Loaded> queue, AtomicInteger liveWorkers,
+                             AtomicReference<Throwable> workerError, Consumer<MapFileStatistics> consumer) {
+        try {
+            label(queue, consumer);
+        } catch (Throwable e) {
+            workerError.compareAndSet(null, e);
+        } finally {
+            liveWorkers.decrementAndGet();
+        }
+    }
+
+    @SneakyThrows
+    private static void label(BlockingQueue<Loaded> queue, Consumer<MapFileStatistics> consumer) {
+        Loaded loaded;
+        while ((loaded = queue.take()) != Loaded.END) {
+            if (loaded.getError() != null) {
+                consumer.accept(MapFileStatistics.failed(loaded.getFile(), loaded.getError()));
+                continue;
+            }
+            MapFileStatistics statistics;
+            try {
+                final long start = System.nanoTime();
+                final ComponentLabeling labeling = UnionFindLabeler.label(loaded.getGrid());
+                statistics = MapFileStatistics.of(loaded.getFile(), labeling, loaded.getLoadNanos(),
+                        System.nanoTime() - start);
+            } catch (Throwable e) { // as for loading, an Error fails the tile, not the thread
+                statistics = MapFileStatistics.failed(loaded.getFile(), e);
+            }
+            consumer.accept(statistics);
+        }
+    }
+
+    private static void appendLine(Appendable out, String line) {
+        try {
+            out.append(line).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package island;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the text of {@link IslandMap#export} straight to a channel, UTF-8 encoded, through a reused buffer,
+ * so the whole text never exists in memory. The output is byte-identical to {@code export(...)}'s
+ * {@code getBytes(UTF_8)}, or to the same rows cut to a rectangle.
+ * <p>
+ * Cells without a payload symbol are copied as the pre-encoded land or water bytes, and payload symbols go
+ * through a reused builder, so a write allocates nothing per cell beyond what the payload supplier does
+ * for untouched cells. Each symbol is encoded on its own.
+ * The buffers are kept between calls; an exporter is meant for one thread.
+ */
+public final class MapExporter {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final IslandMap<?> map;
+    private final byte[] waterBytes;
+    private final byte[] landBytes;
+    private final StringBuilder symbol = new StringBuilder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final byte[] bytes = buffer.array();
+    private int position;
+    private long flushed;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    public MapExporter(IslandMap<?> map, char waterSymbol, char landSymbol) {
+        this.map = map;
+        this.waterBytes = String.valueOf(waterSymbol).getBytes(StandardCharsets.UTF_8);
+        this.landBytes = String.valueOf(landSymbol).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public long write(WritableByteChannel channel) throws IOException {
+        return write(channel, 0, 0, map.getWidth(), map.getHeight());
+    }
+
+    /**
+     * Writes the rows {@code [y, y + height)} cut to the columns {@code [x, x + width)}, each ending with '\n'.
+     * The channel is not closed.
+     *
+     * @return number of bytes written
+     */
+    public long write(WritableByteChannel channel, int x, int y, int width, int height) throws IOException {
+        Preconditions.checkArgument(x >= 0 && y >= 0 && width >= 0 && height >= 0
+                        && width <= map.getWidth() - x && height <= map.getHeight() - y,
+                "Rectangle " + x + ":" + y + " " + width + "x" + height + " is out of the map");
+        final LandGrid grid = map.getGrid();
+        final boolean payloads = map.hasPayloads();
+        position = 0;
+        flushed = 0;
+        for (int rowY = y; rowY < y + height; rowY++) {
+            for (int cellX = x; cellX < x + width; cellX++) {
+                if (payloads) {
+                    symbol.setLength(0);
+                    if (map.appendPayloadSymbol(symbol, cellX, rowY)) {
+                        putSymbol(channel);
+                        continue;
+                    }
+                }
+                put(channel, grid.isLand(cellX, rowY) ? landBytes : waterBytes);
+            }
+            if (position == bytes.length) {
+                drain(channel);
+            }
+            bytes[position++] = '\n';
+        }
+        drain(channel);
+        return flushed;
+    }
+
+    public long write(OutputStream out) throws IOException {
+        return write(Channels.newChannel(out));
+    }
+
+    public long write(OutputStream out, int x, int y, int width, int height) throws IOException {
+        return write(Channels.newChannel(out), x, y, width, height);
+    }
+
+    private void put(WritableByteChannel channel, byte[] symbolBytes) throws IOException {
+        if (bytes.length - position < symbolBytes.length) {
+            drain(channel);
+        }
+        if (symbolBytes.length == 1) {
+            bytes[position++] = symbolBytes[0];
+        } else {
+            System.arraycopy(symbolBytes, 0, bytes, position, symbolBytes.length);
+            position += symbolBytes.length;
+        }
+    }
+
+    /**
+     * Copies an ASCII payload symbol as it is, and hands any other one to the encoder.
+     */
+    private void putSymbol(WritableByteChannel channel) throws IOException {
+        final int length = symbol.length();
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) >= 0x80) {
+                encode(channel);
+                return;
+            }
+        }
+        if (bytes.length - position < length) {
+            drain(channel);
+        }
+        for (int i = 0; i < length; i++) {
+            bytes[position++] = (byte) symbol.charAt(i);
+        }
+    }
+
+    private void encode(WritableByteChannel channel) throws IOException {
+        final CharBuffer chars = CharBuffer.wrap(symbol);
+        buffer.position(position);
+        encoder.reset();
+        CoderResult result;
+        while ((result = encoder.encode(chars, buffer, true)).isOverflow()) {
+            drainBuffer(channel);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drainBuffer(channel);
+        }
+        position = buffer.position();
+    }
+
+    private void drain(WritableByteChannel channel) throws IOException {
+        buffer.position(position);
+        drainBuffer(channel);
+        position = 0;
+    }
+
+    private void drainBuffer(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        flushed += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
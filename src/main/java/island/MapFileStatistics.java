@@ -0,0 +1,104 @@
+package island;
+
+import lombok.Value;
+
+/**
+ * Island and lake statistics of one map file of a {@link MapBatchProcessor} run.
+ * A file that failed to load or to label has only its name and the error, as its class name and message.
+ */
+@Value
+public class MapFileStatistics {
+    public static final String CSV_HEADER =
+            "file,width,height,landCells,islands,lakes,islandsWithLakes,maxLakes,loadMillis,labelMillis,error";
+
+    String file;
+    int width;
+    int height;
+    long landCells;
+    int islandCount;
+    int lakeCount;
+    int islandsWithLakes;
+    int maxLakesPerIsland;
+    long loadNanos;
+    long labelNanos;
+    String error;
+
+    static MapFileStatistics of(String file, ComponentLabeling labeling, long loadNanos, long labelNanos) {
+        final LandGrid grid = labeling.getGrid();
+        int islands = 0;
+        int lakes = 0;
+        int islandsWithLakes = 0;
+        int maxLakes = 0;
+        for (int component = 0; component < labeling.getComponentCount(); component++) {
+            if (labeling.isLand(component)) {
+                islands++;
+                final int lakeCount = labeling.lakeCount(component);
+                if (lakeCount > 0) {
+                    islandsWithLakes++;
+                }
+                maxLakes = Math.max(maxLakes, lakeCount);
+            } else if (labeling.isLake(component)) {
+                lakes++;
+            }
+        }
+        return new MapFileStatistics(file, grid.getWidth(), grid.getHeight(), BitFloodFill.cardinality(grid.words()),
+                islands, lakes, islandsWithLakes, maxLakes, loadNanos, labelNanos, null);
+    }
+
+    static MapFileStatistics failed(String file, Throwable error) {
+        return new MapFileStatistics(file, 0, 0, 0, 0, 0, 0, 0, 0, 0, error.toString());
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder(160);
+        sb.append("{\"file\":");
+        appendJsonString(sb, file);
+        if (isFailed()) {
+            sb.append(",\"error\":");
+            appendJsonString(sb, error);
+        } else {
+            sb.append(",\"width\":").append(width)
+                    .append(",\"height\":").append(height)
+                    .append(",\"landCells\":").append(landCells)
+                    .append(",\"islands\":").append(islandCount)
+                    .append(",\"lakes\":").append(lakeCount)
+                    .append(",\"islandsWithLakes\":").append(islandsWithLakes)
+                    .append(",\"maxLakes\":").append(maxLakesPerIsland)
+                    .append(",\"loadMillis\":").append(loadNanos / 1_000_000)
+                    .append(",\"labelMillis\":").append(labelNanos / 1_000_000);
+        }
+        return sb.append('}').toString();
+    }
+
+    public String toCsv() {
+        return csvField(file) + ',' + width + ',' + height + ',' + landCells + ',' + islandCount + ',' + lakeCount
+                + ',' + islandsWithLakes + ',' + maxLakesPerIsland + ',' + loadNanos / 1_000_000
+                + ',' + labelNanos / 1_000_000 + ',' + (isFailed() ? csvField(error) : "");
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,184 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+/**
+ * Loads a text map through {@link FileChannel#map}, parsing bytes straight into a {@link LandGrid}
+ * without building a String per row. Both {@code \n} and {@code \r\n} line ends are accepted, but not mixed
+ * in one file, and the final line end is optional. Map symbols must be single-byte (ASCII) characters.
+ * <p>
+ * One reader instance remembers the statistics of its last load.
+ */
+public final class MappedMapReader {
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    // bulk copies out of the mapping are much cheaper than per-byte get() calls:
+    private static final int COPY_BYTES = 1 << 16;
+
+    @Getter
+    private long bytesRead;
+    @Getter
+    private long loadNanos;
+
+    public <T> IslandMap<T> read(char waterSymbol, Path path) {
+        return read(waterSymbol, path, null);
+    }
+
+    @SneakyThrows
+    public <T> IslandMap<T> read(char waterSymbol, Path path, BiFunction<Integer, Integer, T> payloadSupplier) {
+        Preconditions.checkArgument(waterSymbol < 0x80, "Water symbol must be ASCII: " + waterSymbol);
+        final long start = System.nanoTime();
+        final LandGrid grid;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            grid = (size == 0) ? new LandGrid(0, 0) : parse(channel, size, (byte) waterSymbol);
+            bytesRead = size;
+        }
+        final IslandMap<T> map = IslandMap.fromGrid(grid, payloadSupplier);
+        loadNanos = System.nanoTime() - start;
+        return map;
+    }
+
+    public double throughputMbPerSecond() {
+        return loadNanos == 0 ? 0 : (bytesRead / (1024.0 * 1024.0)) / (loadNanos / 1e9);
+    }
+
+    private static LandGrid parse(FileChannel channel, long size, byte waterSymbol) throws IOException {
+        final RowShape shape = RowShape.detect(channel, size);
+        final LandGrid grid = new LandGrid(shape.width, shape.height);
+        final long[] words = grid.words();
+        final int wordsPerRow = grid.getWordsPerRow();
+
+        final byte[] bytes = new byte[COPY_BYTES];
+        final boolean crlf = shape.firstLineEndByte == '\r';
+        int x = 0;
+        int y = 0;
+        int rowBase = 0;
+        byte previous = 0;
+        for (long position = 0; position < size; position += MAX_CHUNK_BYTES) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAX_CHUNK_BYTES, size - position));
+            while (buffer.hasRemaining()) {
+                final int length = Math.min(bytes.length, buffer.remaining());
+                buffer.get(bytes, 0, length);
+                for (int i = 0; i < length; i++) {
+                    if (x == 0) {
+                        // the height is estimated from the first line; checked once per line, before it is written:
+                        Preconditions.checkArgument(y < shape.height,
+                                "More than the %s lines expected from the file size", shape.height);
+                        if (shape.width > 0 && i + shape.width < length
+                                && bytes[i + shape.width] == shape.firstLineEndByte
+                                && packRow(bytes, i, shape.width, waterSymbol, words, rowBase)) {
+                            // fast path, the whole row was in the copy buffer:
+                            i += shape.width - 1;
+                            x = shape.width;
+                            continue;
+                        }
+                    }
+                    final byte b = bytes[i];
+                    if (b == '\n') {
+                        checkLineEnd(y, crlf, previous == '\r');
+                        checkRowWidth(y, shape.width, x);
+                        x = 0;
+                        y++;
+                        rowBase += wordsPerRow;
+                    } else if (b != '\r') {
+                        if (x < shape.width && b != waterSymbol) {
+                            words[rowBase + (x >>> 6)] |= 1L << x;
+                        }
+                        x++;
+                    }
+                    previous = b;
+                }
+            }
+        }
+        if (x > 0) {
+            checkRowWidth(y, shape.width, x); // last line without a line end
+            y++;
+        }
+        Preconditions.checkArgument(y == shape.height, "Expected " + shape.height + " lines, but found " + y);
+        return grid;
+    }
+
+    /**
+     * @return false, leaving the row words clear, if the row turned out to be shorter than the width.
+     */
+    private static boolean packRow(byte[] bytes, int offset, int width, byte waterSymbol, long[] words, int rowBase) {
+        boolean lineEndInside = false;
+        for (int x = 0; x < width; x += 64) {
+            final int end = Math.min(width, x + 64);
+            long word = 0;
+            for (int i = x; i < end; i++) {
+                final byte b = bytes[offset + i];
+                word |= (b != waterSymbol ? 1L : 0L) << i;
+                lineEndInside |= (b == '\n') | (b == '\r');
+            }
+            words[rowBase + (x >>> 6)] = word;
+        }
+        if (lineEndInside) {
+            Arrays.fill(words, rowBase, rowBase + ((width + 63) >>> 6), 0L);
+            return false;
+        }
+        return true;
+    }
+
+    private static void checkLineEnd(int y, boolean crlf, boolean afterCr) {
+        if (crlf != afterCr) {
+            throw new IllegalArgumentException("Line y=" + y + " ends with " + (afterCr ? "\\r\\n" : "\\n")
+                    + ", but the first line ends with " + (crlf ? "\\r\\n" : "\\n") + "; mixed line ends are not supported");
+        }
+    }
+
+    private static void checkRowWidth(int y, int expectedWidth, int actualWidth) {
+        Preconditions.checkArgument(actualWidth == expectedWidth,
+                "Line y=" + y + " length mismatch: expected " + expectedWidth + ", but found " + actualWidth);
+    }
+
+    /**
+     * Width from the first line; height from the file size, assuming all lines are as long as the first one
+     * (which the parser then verifies).
+     */
+    private static final class RowShape {
+        final int width;
+        final int height;
+        final byte firstLineEndByte;
+
+        private RowShape(int width, int height, byte firstLineEndByte) {
+            this.width = width;
+            this.height = height;
+            this.firstLineEndByte = firstLineEndByte;
+        }
+
+        static RowShape detect(FileChannel channel, long size) throws IOException {
+            final MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_CHUNK_BYTES));
+            int lineLength = 0;
+            int lineEnd = 0;
+            while (head.hasRemaining()) {
+                final byte b = head.get();
+                if (b == '\n') {
+                    lineEnd = 1;
+                    break;
+                }
+                lineLength++;
+            }
+            int width = lineLength;
+            if (lineEnd == 1 && width > 0 && head.get(width - 1) == '\r') {
+                width--;
+                lineEnd = 2;
+            }
+            final long stride = width + lineEnd;
+            final long height = (lineEnd == 0) ? 1 : (size + stride - 1) / stride;
+            Preconditions.checkArgument(height <= Integer.MAX_VALUE, "Too many lines: " + height);
+            return new RowShape(width, (int) height, (byte) (lineEnd == 2 ? '\r' : '\n'));
+        }
+    }
+}
@@ -3,7 +3,7 @@ package island;
 import lombok.Getter;
 import lombok.Setter;
 
-public class MarkerPayload {
+public class MarkerPayload implements ExportSymbol {
     // TODO: replace with a boolean:
     @Getter @Setter
     Classification classification;
@@ -23,4 +23,16 @@ public class MarkerPayload {
             return classification.toString();
         }
     }
+
+    @Override
+    public boolean appendSymbol(StringBuilder out) {
+        if (classification == null) {
+            return false;
+        } else if (lakeIndex >= 0) {
+            out.append(lakeIndex);
+        } else {
+            out.append(classification.getSymbol());
+        }
+        return true;
+    }
 }
@@ -0,0 +1,19 @@
+package island;
+
+/**
+ * The {@link IslandMetrics} all traversals and loaders report to; {@link IslandMetrics#NOOP} unless installed.
+ */
+public final class Metrics {
+    private static volatile IslandMetrics current = IslandMetrics.NOOP;
+
+    private Metrics() {
+    }
+
+    public static IslandMetrics current() {
+        return current;
+    }
+
+    public static void install(IslandMetrics metrics) {
+        current = (metrics == null) ? IslandMetrics.NOOP : metrics;
+    }
+}
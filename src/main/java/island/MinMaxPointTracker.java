@@ -1,11 +1,15 @@
 package island;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 
 import java.util.function.Consumer;
 
 @Getter
+@EqualsAndHashCode
+@ToString
 public class MinMaxPointTracker implements Consumer<Point<?>> {
     private int minX = Integer.MAX_VALUE;
     private int minY = Integer.MAX_VALUE;
@@ -13,15 +17,30 @@ public class MinMaxPointTracker implements Consumer<Point<?>> {
     private int maxY = Integer.MIN_VALUE;
 
     public void accept(@NonNull Point<?> point) {
-        minX = Math.min(minX, point.getX());
-        minY = Math.min(minY, point.getY());
+        accept(point.getX(), point.getY());
+    }
+
+    public void accept(int x, int y) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
 
-        maxX = Math.max(maxX, point.getX());
-        maxY = Math.max(maxY, point.getY());
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
     }
 
     public boolean isOnBoundingBox(Point<?> point) {
-        return minX == point.getX() || maxX == point.getX()
-            || minY == point.getY() || maxY == point.getY();
+        return isOnBoundingBox(point.getX(), point.getY());
+    }
+
+    public boolean isOnBoundingBox(int x, int y) {
+        return minX == x || maxX == x
+            || minY == y || maxY == y;
+    }
+
+    /**
+     * @return whether the point is inside the bounding box and not on its border
+     */
+    public boolean isStrictlyInside(int x, int y) {
+        return minX < x && x < maxX && minY < y && y < maxY;
     }
 }
@@ -0,0 +1,206 @@
+package island;
+
+import java.util.Arrays;
+
+/**
+ * Containment tree of a whole map: the ocean at the root, islands in it, their lakes below them,
+ * islands in those lakes, and so on. Built from a {@link ComponentLabeling} with one more pass over the cells,
+ * after which every query, including the lakes of an island or the nesting depth, is O(1) or O(children).
+ * <p>
+ * Node {@link #ROOT} is the ocean, all water connected to the map edge. The other nodes are the islands
+ * and lakes in raster order of their first cell, so a parent always has a smaller node id than its children.
+ * The perimeter of a node counts the cells next to it (north, east, south or west) that belong to other
+ * nodes: for an island, the water along its coast and around its lakes.
+ */
+public final class NestingTree {
+    public static final int ROOT = 0;
+    public static final int NO_PARENT = -1;
+
+    private final LandGrid grid;
+    private final ComponentLabeling labeling;
+    private final int[] nodeOfComponent;
+    private final int nodeCount;
+    private final int[] firstCell;
+    private final int[] parent;
+    private final int[] depth;
+    private final long[] area;
+    private final long[] perimeter;
+    private final int[] minX;
+    private final int[] minY;
+    private final int[] maxX;
+    private final int[] maxY;
+    // children of node n are children[childStart[n] .. childStart[n + 1]):
+    private final int[] childStart;
+    private final int[] children;
+
+    private NestingTree(ComponentLabeling labeling) {
+        this.labeling = labeling;
+        this.grid = labeling.getGrid();
+        final int componentCount = labeling.getComponentCount();
+        nodeOfComponent = new int[componentCount];
+        int nodes = 1;
+        for (int component = 0; component < componentCount; component++) {
+            nodeOfComponent[component] = labeling.isOcean(component) ? ROOT : nodes++;
+        }
+        nodeCount = nodes;
+        firstCell = new int[nodeCount];
+        parent = new int[nodeCount];
+        depth = new int[nodeCount];
+        firstCell[ROOT] = -1;
+        parent[ROOT] = NO_PARENT;
+        for (int component = 0; component < componentCount; component++) {
+            final int node = nodeOfComponent[component];
+            if (node != ROOT) {
+                final int parentComponent = labeling.parent(component);
+                firstCell[node] = labeling.firstCell(component);
+                parent[node] = (parentComponent == ComponentLabeling.NO_PARENT) ? ROOT : nodeOfComponent[parentComponent];
+                depth[node] = depth[parent[node]] + 1; // the parent has a smaller id, so it is done already
+            }
+        }
+
+        area = new long[nodeCount];
+        perimeter = new long[nodeCount];
+        minX = new int[nodeCount];
+        minY = new int[nodeCount];
+        maxX = new int[nodeCount];
+        maxY = new int[nodeCount];
+        Arrays.fill(minX, Integer.MAX_VALUE);
+        Arrays.fill(minY, Integer.MAX_VALUE);
+        Arrays.fill(maxX, Integer.MIN_VALUE);
+        Arrays.fill(maxY, Integer.MIN_VALUE);
+        measure();
+
+        childStart = new int[nodeCount + 1];
+        for (int node = 1; node < nodeCount; node++) {
+            childStart[parent[node] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            childStart[node + 1] += childStart[node];
+        }
+        children = new int[nodeCount - 1];
+        final int[] next = Arrays.copyOf(childStart, nodeCount);
+        for (int node = 1; node < nodeCount; node++) {
+            children[next[parent[node]]++] = node;
+        }
+    }
+
+    public static NestingTree build(ComponentLabeling labeling) {
+        return new NestingTree(labeling);
+    }
+
+    private void measure() {
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        final int[] adjacent = new int[4];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int cell = y * width + x;
+                final int node = nodeOf(cell);
+                area[node]++;
+                minX[node] = Math.min(minX[node], x);
+                minY[node] = Math.min(minY[node], y);
+                maxX[node] = Math.max(maxX[node], x);
+                maxY[node] = Math.max(maxY[node], y);
+                // this cell is on the perimeter of each distinct other node next to it:
+                int count = 0;
+                count = addAdjacent(adjacent, count, node, (y > 0) ? nodeOf(cell - width) : node);
+                count = addAdjacent(adjacent, count, node, (x + 1 < width) ? nodeOf(cell + 1) : node);
+                count = addAdjacent(adjacent, count, node, (y + 1 < height) ? nodeOf(cell + width) : node);
+                count = addAdjacent(adjacent, count, node, (x > 0) ? nodeOf(cell - 1) : node);
+                for (int i = 0; i < count; i++) {
+                    perimeter[adjacent[i]]++;
+                }
+            }
+        }
+    }
+
+    private static int addAdjacent(int[] adjacent, int count, int node, int other) {
+        if (other == node) {
+            return count;
+        }
+        for (int i = 0; i < count; i++) {
+            if (adjacent[i] == other) {
+                return count;
+            }
+        }
+        adjacent[count] = other;
+        return count + 1;
+    }
+
+    private int nodeOf(int cell) {
+        return nodeOfComponent[labeling.componentOfCell(cell)];
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int nodeAt(int x, int y) {
+        return nodeOf(grid.index(x, y));
+    }
+
+    public boolean isLand(int node) {
+        return node != ROOT && grid.isLand(firstCell[node]);
+    }
+
+    public boolean isLake(int node) {
+        return node != ROOT && !grid.isLand(firstCell[node]);
+    }
+
+    /**
+     * @return the first (top-most, then left-most) cell of the node, or -1 for the root
+     */
+    public int firstCell(int node) {
+        return firstCell[node];
+    }
+
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * @return 0 for the ocean, 1 for islands in it, 2 for their lakes, and so on
+     */
+    public int depth(int node) {
+        return depth[node];
+    }
+
+    public long area(int node) {
+        return area[node];
+    }
+
+    public long perimeter(int node) {
+        return perimeter[node];
+    }
+
+    public int minX(int node) {
+        return minX[node];
+    }
+
+    public int minY(int node) {
+        return minY[node];
+    }
+
+    public int maxX(int node) {
+        return maxX[node];
+    }
+
+    public int maxY(int node) {
+        return maxY[node];
+    }
+
+    /**
+     * @return the lakes of an island, the islands of a lake, or the islands of the ocean for the root
+     */
+    public int childCount(int node) {
+        return childStart[node + 1] - childStart[node];
+    }
+
+    public int child(int node, int i) {
+        return children[childStart[node] + i];
+    }
+
+    public int[] children(int node) {
+        return Arrays.copyOfRange(children, childStart[node], childStart[node + 1]);
+    }
+}
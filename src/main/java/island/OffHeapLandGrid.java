@@ -0,0 +1,96 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Land/water mask with the layout of {@link LandGrid}, but kept outside of the Java heap and addressed by
+ * {@code long}, so it can hold more than 2^31 cells and adds nothing for the garbage collector to trace or copy.
+ * Cell {@code (x, y)} has index {@code y * width + x}. The words live in direct buffers,
+ * or in a memory-mapped file holding the raw words, which the OS pages in and out as needed.
+ */
+public final class OffHeapLandGrid {
+    @Getter
+    private final long width;
+    @Getter
+    private final long height;
+    @Getter
+    private final long wordsPerRow;
+
+    private final OffHeapLongArray words;
+
+    private OffHeapLandGrid(long width, long height, OffHeapLongArray words) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = words;
+    }
+
+    private static long wordCount(long width, long height) {
+        Preconditions.checkArgument(width >= 0 && height >= 0, "Negative size: " + width + "x" + height);
+        final long wordsPerRow = (width + 63) >>> 6;
+        Preconditions.checkArgument(height == 0 || wordsPerRow <= Long.MAX_VALUE / 8 / height,
+                "Map of " + width + "x" + height + " cells is too large");
+        return wordsPerRow * height;
+    }
+
+    public static OffHeapLandGrid allocate(long width, long height) {
+        return new OffHeapLandGrid(width, height, OffHeapLongArray.allocate(wordCount(width, height)));
+    }
+
+    /**
+     * Maps a file of raw words, {@code 8 * wordsPerRow * height} bytes, creating or growing it as needed;
+     * cells written to the grid go to the file.
+     */
+    @SneakyThrows
+    public static OffHeapLandGrid map(Path path, long width, long height) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new OffHeapLandGrid(width, height,
+                    OffHeapLongArray.map(channel, FileChannel.MapMode.READ_WRITE, 0, wordCount(width, height)));
+        }
+    }
+
+    public static OffHeapLandGrid copyOf(LandGrid grid) {
+        final OffHeapLandGrid copy = allocate(grid.getWidth(), grid.getHeight());
+        final long[] source = grid.words();
+        for (int w = 0; w < source.length; w++) {
+            copy.words.set(w, source[w]);
+        }
+        return copy;
+    }
+
+    public long cellCount() {
+        return width * height;
+    }
+
+    public long index(long x, long y) {
+        return y * width + x;
+    }
+
+    public boolean isLand(long x, long y) {
+        return (words.get(y * wordsPerRow + (x >>> 6)) & (1L << x)) != 0;
+    }
+
+    public boolean isLand(long index) {
+        return isLand(index % width, index / width);
+    }
+
+    public void setLand(long x, long y, boolean land) {
+        final long w = y * wordsPerRow + (x >>> 6);
+        if (land) {
+            words.set(w, words.get(w) | (1L << x));
+        } else {
+            words.set(w, words.get(w) & ~(1L << x));
+        }
+    }
+
+    public long offHeapBytes() {
+        return 8 * words.getLength();
+    }
+}
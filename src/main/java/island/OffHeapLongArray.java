@@ -0,0 +1,73 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@code long} array outside of the Java heap, indexed by {@code long}: a sequence of 1 GiB chunks,
+ * either direct buffers or mappings of a file. Words are little-endian, as in {@link BinaryMapFormat}.
+ */
+final class OffHeapLongArray {
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_LONGS = 1L << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = (int) CHUNK_LONGS - 1;
+
+    @Getter
+    private final long length;
+    private final LongBuffer[] chunks;
+
+    private OffHeapLongArray(long length, LongBuffer[] chunks) {
+        this.length = length;
+        this.chunks = chunks;
+    }
+
+    static OffHeapLongArray allocate(long length) {
+        final LongBuffer[] chunks = new LongBuffer[chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+            final int longs = (int) Math.min(CHUNK_LONGS, length - c * CHUNK_LONGS);
+            chunks[c] = ByteBuffer.allocateDirect(longs << 3).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+        return new OffHeapLongArray(length, chunks);
+    }
+
+    /**
+     * Maps {@code length} words of the file starting at byte {@code offset}; a read-write mapping grows the file.
+     */
+    static OffHeapLongArray map(FileChannel channel, FileChannel.MapMode mode, long offset, long length)
+            throws IOException {
+        final LongBuffer[] chunks = new LongBuffer[chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+            final long longs = Math.min(CHUNK_LONGS, length - c * CHUNK_LONGS);
+            chunks[c] = channel.map(mode, offset + (c * CHUNK_LONGS << 3), longs << 3)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+        return new OffHeapLongArray(length, chunks);
+    }
+
+    private static int chunkCount(long length) {
+        Preconditions.checkArgument(length >= 0, "Negative length: " + length);
+        final long count = (length + CHUNK_LONGS - 1) >>> CHUNK_SHIFT;
+        Preconditions.checkArgument(count <= Integer.MAX_VALUE, "Too long: " + length);
+        return (int) count;
+    }
+
+    long get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) index & CHUNK_MASK);
+    }
+
+    void set(long index, long value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) index & CHUNK_MASK, value);
+    }
+
+    void copyTo(long index, OffHeapLongArray target, long targetIndex, long count) {
+        for (long i = 0; i < count; i++) {
+            target.set(targetIndex + i, get(index + i));
+        }
+    }
+}
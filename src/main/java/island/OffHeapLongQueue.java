@@ -0,0 +1,57 @@
+package island;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of longs in an off-heap power-of-two ring buffer that doubles when full,
+ * the {@code long} counterpart of {@link IntRingQueue}.
+ */
+final class OffHeapLongQueue {
+    private OffHeapLongArray buffer;
+    private long head;
+    private long size;
+
+    OffHeapLongQueue(long initialCapacity) {
+        buffer = OffHeapLongArray.allocate(Long.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1);
+    }
+
+    void offer(long value) {
+        if (size == buffer.getLength()) {
+            grow();
+        }
+        buffer.set((head + size) & (buffer.getLength() - 1), value);
+        size++;
+    }
+
+    long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final long value = buffer.get(head);
+        head = (head + 1) & (buffer.getLength() - 1);
+        size--;
+        return value;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        final OffHeapLongArray newBuffer = OffHeapLongArray.allocate(buffer.getLength() << 1);
+        final long firstPart = buffer.getLength() - head;
+        buffer.copyTo(head, newBuffer, 0, firstPart);
+        buffer.copyTo(0, newBuffer, firstPart, head);
+        buffer = newBuffer;
+        head = 0;
+    }
+}
@@ -0,0 +1,122 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.function.LongPredicate;
+
+/**
+ * BFS over an {@link OffHeapLandGrid} with {@code long} cell indices. The visited bits and the queue are
+ * off-heap as well, and reused by every call: visited bits are cleared through a log of the words they
+ * were set in, so a query costs what it visits, not the size of the map.
+ * Not thread-safe, and not reentrant: nested or concurrent traversals need their own instances.
+ */
+public final class OffHeapTraversal {
+    private static final long INITIAL_QUEUE_CAPACITY = 1 << 16;
+    // clockwise from north; the straight neighbours are the even entries:
+    private static final long[] DX = { 0, 1, 1, 1, 0, -1, -1, -1 };
+    private static final long[] DY = { -1, -1, 0, 1, 1, 1, 0, -1 };
+
+    @Getter
+    private final OffHeapLandGrid grid;
+    private final OffHeapLongArray visited;
+    private final OffHeapLongQueue dirtyWords = new OffHeapLongQueue(INITIAL_QUEUE_CAPACITY);
+    private final OffHeapLongQueue queue = new OffHeapLongQueue(INITIAL_QUEUE_CAPACITY);
+
+    public OffHeapTraversal(OffHeapLandGrid grid) {
+        this.grid = grid;
+        this.visited = OffHeapLongArray.allocate((grid.cellCount() + 63) >>> 6);
+    }
+
+    /**
+     * Same contract as {@link Traversal#traverseBFS(int, java.util.function.IntPredicate, IntBiPredicate,
+     * java.util.function.IntPredicate)}: 4 neighbours in the order north, east, south, west,
+     * stamped visited when enqueued.
+     */
+    public long traverseBFS(long startIndex,
+                            LongPredicate cellPreConsumer,
+                            LongBiPredicate businessNeighbourFilter,
+                            LongPredicate cellPostConsumer) {
+        return traverse(startIndex, false, cellPreConsumer, businessNeighbourFilter, cellPostConsumer);
+    }
+
+    /**
+     * Visits the island (8-connected land) at the given land cell until the consumer returns false.
+     *
+     * @return number of cells visited
+     */
+    public long traverseIsland(long x, long y, LongPredicate cellConsumer) {
+        Preconditions.checkArgument(grid.isLand(x, y), "Point " + x + ":" + y + " is not land");
+        return traverse(grid.index(x, y), true, cellConsumer, (c, n) -> grid.isLand(n), c -> true);
+    }
+
+    private long traverse(long startIndex, boolean diagonal, LongPredicate cellPreConsumer,
+                          LongBiPredicate businessNeighbourFilter, LongPredicate cellPostConsumer) {
+        final IslandMetrics metrics = Metrics.current();
+        final long startNanos = metrics.isEnabled() ? System.nanoTime() : 0;
+        final long width = grid.getWidth();
+        final long height = grid.getHeight();
+        long neighboursExamined = 0;
+        long peakQueueDepth = 0;
+        boolean stoppedEarly = false;
+        long visitedCount = 0;
+        queue.clear();
+        markVisited(startIndex);
+        queue.offer(startIndex);
+        try {
+            while (!queue.isEmpty()) {
+                peakQueueDepth = Math.max(peakQueueDepth, queue.size());
+                final long cell = queue.poll();
+                visitedCount++;
+                if (!cellPreConsumer.test(cell)) {
+                    stoppedEarly = true;
+                    break; // business decided to stop traverse
+                }
+                final long x = cell % width;
+                final long y = cell / width;
+                for (int direction = 0; direction < 8; direction += diagonal ? 1 : 2) {
+                    final long nx = x + DX[direction];
+                    final long ny = y + DY[direction];
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    final long neighbour = ny * width + nx;
+                    neighboursExamined++;
+                    if (!isVisited(neighbour) && businessNeighbourFilter.test(cell, neighbour)) {
+                        markVisited(neighbour);
+                        queue.offer(neighbour);
+                    }
+                }
+                if (!cellPostConsumer.test(cell)) {
+                    stoppedEarly = true;
+                    break; // business decided to stop traverse
+                }
+            }
+        } finally {
+            clearVisited();
+        }
+        if (metrics.isEnabled()) {
+            metrics.traversalFinished(visitedCount, neighboursExamined, (int) Math.min(Integer.MAX_VALUE, peakQueueDepth),
+                    stoppedEarly, System.nanoTime() - startNanos);
+        }
+        return visitedCount;
+    }
+
+    private boolean isVisited(long cell) {
+        return (visited.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    private void markVisited(long cell) {
+        final long word = visited.get(cell >>> 6);
+        if (word == 0) {
+            dirtyWords.offer(cell >>> 6);
+        }
+        visited.set(cell >>> 6, word | (1L << cell));
+    }
+
+    private void clearVisited() {
+        while (!dirtyWords.isEmpty()) {
+            visited.set(dirtyWords.poll(), 0);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package island;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the {@link UnionFindLabeler} first pass on horizontal strips of the map in parallel, merging
+ * the union-find forests across each seam as soon as both strips next to it are done.
+ * <p>
+ * A strip only ever writes forest entries of its own rows, and a merged pair of strips only those of
+ * its combined range, so concurrently running tasks never touch the same entries.
+ * The final relabeling pass stays sequential, as component ids are assigned in raster order.
+ */
+public final class ParallelLabeler {
+    private static final int DEFAULT_MIN_STRIP_ROWS = 16;
+
+    private ParallelLabeler() {
+    }
+
+    public static ComponentLabeling label(LandGrid grid) {
+        return label(grid, ForkJoinPool.commonPool());
+    }
+
+    public static ComponentLabeling label(LandGrid grid, ForkJoinPool pool) {
+        final int stripRows = Math.max(DEFAULT_MIN_STRIP_ROWS, grid.getHeight() / (4 * pool.getParallelism()));
+        return label(grid, pool, stripRows);
+    }
+
+    public static ComponentLabeling label(LandGrid grid, ForkJoinPool pool, int stripRows) {
+        Preconditions.checkArgument(stripRows > 0, "Strip must have rows: " + stripRows);
+        final int[] forest = new int[grid.cellCount()];
+        pool.invoke(new StripTask(grid, forest, 0, grid.getHeight(), stripRows));
+        return ComponentLabeling.fromForest(grid, forest);
+    }
+
+    private static final class StripTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final LandGrid grid;
+        private final int[] forest;
+        private final int fromRow;
+        private final int toRow;
+        private final int stripRows;
+
+        StripTask(LandGrid grid, int[] forest, int fromRow, int toRow, int stripRows) {
+            this.grid = grid;
+            this.forest = forest;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.stripRows = stripRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= stripRows) {
+                UnionFindLabeler.linkRows(grid, forest, fromRow, toRow);
+                return;
+            }
+            final int middleRow = (fromRow + toRow) >>> 1;
+            invokeAll(new StripTask(grid, forest, fromRow, middleRow, stripRows),
+                    new StripTask(grid, forest, middleRow, toRow, stripRows));
+            UnionFindLabeler.linkSeam(grid, forest, middleRow);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package island;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * Payloads of a map's cells, created by the supplier the first time a cell's payload is asked for.
+ * Storage is paged: a page of {@value #PAGE_SIZE} references is allocated on the first payload in it,
+ * so loading costs nothing per cell and memory follows the cells actually touched (typically shores and lakes).
+ * <p>
+ * Pages and payloads are published with compare-and-set, so a frozen map shared between threads can still
+ * create payloads from any of them: each cell keeps the first payload stored, and a thread that loses the race
+ * gets that one, its own supplier result being dropped.
+ */
+final class PayloadTable<T> {
+    private static final int PAGE_BITS = 10;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    // stored for a cell whose supplier returned null, so the supplier is not asked again:
+    private static final Object NO_PAYLOAD = new Object();
+
+    private final int width;
+    private final BiFunction<Integer, Integer, T> payloadSupplier;
+    private final AtomicReferenceArray<AtomicReferenceArray<Object>> pages;
+    private final AtomicInteger materializedCount = new AtomicInteger();
+
+    PayloadTable(LandGrid grid, BiFunction<Integer, Integer, T> payloadSupplier) {
+        this.width = grid.getWidth();
+        this.payloadSupplier = payloadSupplier;
+        this.pages = new AtomicReferenceArray<>((grid.cellCount() + PAGE_SIZE - 1) >>> PAGE_BITS);
+    }
+
+    /**
+     * @return payload of the cell, created and kept on the first call
+     */
+    @SuppressWarnings("unchecked")
+    T get(int x, int y) {
+        final int cell = y * width + x;
+        AtomicReferenceArray<Object> page = pages.get(cell >>> PAGE_BITS);
+        if (page == null) {
+            page = new AtomicReferenceArray<>(PAGE_SIZE);
+            if (!pages.compareAndSet(cell >>> PAGE_BITS, null, page)) {
+                page = pages.get(cell >>> PAGE_BITS);
+            }
+        }
+        Object payload = page.get(cell & (PAGE_SIZE - 1));
+        if (payload == null) {
+            final T created = payloadSupplier.apply(x, y);
+            payload = (created == null) ? NO_PAYLOAD : created;
+            if (page.compareAndSet(cell & (PAGE_SIZE - 1), null, payload)) {
+                if (created != null) {
+                    materializedCount.incrementAndGet();
+                }
+            } else {
+                payload = page.get(cell & (PAGE_SIZE - 1));
+            }
+        }
+        return payload == NO_PAYLOAD ? null : (T) payload;
+    }
+
+    /**
+     * @return payload of the cell if one was created, without creating it
+     */
+    @SuppressWarnings("unchecked")
+    T peek(int x, int y) {
+        final Object payload = stored(y * width + x);
+        return payload == NO_PAYLOAD ? null : (T) payload;
+    }
+
+    /**
+     * @return payload of the cell if one was created, or else what the supplier gives for it, which is not kept
+     */
+    @SuppressWarnings("unchecked")
+    T peekOrFresh(int x, int y) {
+        final Object payload = stored(y * width + x);
+        if (payload == null) {
+            return payloadSupplier.apply(x, y);
+        }
+        return payload == NO_PAYLOAD ? null : (T) payload;
+    }
+
+    private Object stored(int cell) {
+        final AtomicReferenceArray<Object> page = pages.get(cell >>> PAGE_BITS);
+        return page == null ? null : page.get(cell & (PAGE_SIZE - 1));
+    }
+
+    /**
+     * @return number of cells holding a (non-null) payload
+     */
+    int getMaterializedCount() {
+        return materializedCount.get();
+    }
+
+    long heapBytes() {
+        long bytes = 32 + 16 + 16 + 16 + 4L * pages.length();
+        for (int p = 0; p < pages.length(); p++) {
+            if (pages.get(p) != null) {
+                bytes += 16 + 16 + 4L * PAGE_SIZE;
+            }
+        }
+        return bytes;
+    }
+}
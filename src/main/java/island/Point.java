@@ -1,27 +1,44 @@
 package island;
 
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
-import java.util.HashSet;
-import java.util.Set;
-
-@RequiredArgsConstructor
+/**
+ * A lightweight view of one map cell. Points are created on demand by {@link IslandMap},
+ * so they carry no traversal state: two views of the same cell share only the payload,
+ * which the map creates only when {@link #getMutablePayload} is first called for the cell.
+ */
 @Getter
 public class Point<T> {
     private final int x;
     private final int y;
     private final boolean land;
 
-    private final T mutablePayload;
-    private final Set<Integer> visitedMarker = new HashSet<>();
+    @Getter(AccessLevel.NONE)
+    private T mutablePayload;
+    @Getter(AccessLevel.NONE)
+    private final PayloadTable<T> payloads;
+
+    public Point(int x, int y, boolean land, T mutablePayload) {
+        this.x = x;
+        this.y = y;
+        this.land = land;
+        this.mutablePayload = mutablePayload;
+        this.payloads = null;
+    }
 
-    public boolean isVisited(Integer marker) {
-        return visitedMarker.contains(marker);
+    Point(PayloadTable<T> payloads, int x, int y, boolean land) {
+        this.x = x;
+        this.y = y;
+        this.land = land;
+        this.payloads = payloads;
     }
-    public void markVisited(Integer marker) {
-        boolean added = visitedMarker.add(marker);
-        assert added;
+
+    public T getMutablePayload() {
+        if (mutablePayload == null && payloads != null) {
+            mutablePayload = payloads.get(x, y);
+        }
+        return mutablePayload;
     }
 
     @Override
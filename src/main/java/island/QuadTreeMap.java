@@ -0,0 +1,377 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Region quadtree of a land/water map, for maps that are mostly ocean: uniform square blocks collapse into
+ * single leaves, so size and labeling time grow with the coastline rather than with the area.
+ * <p>
+ * The tree is an int array of slots. Slot 0 is the root; a slot holds either a leaf color ({@link #WATER} or
+ * {@link #LAND}) or the index of the first of its four children, stored together in the order north-west,
+ * north-east, south-west, south-east. The map sits at offset (1, 1) of a power-of-two square padded with water,
+ * so that the water frame around it is the ocean, as the map edge is under the README rules.
+ * <p>
+ * Labeling runs a union-find over leaves, linking every pair of leaves that share an edge (same color), or a
+ * corner (land only), by walking the edges and vertices between sibling blocks. Lakes are then counted with the
+ * rule of {@link ComponentLabeling}: a component's first cell is the top-left corner of one of its leaves,
+ * and its parent is the component just north of that cell.
+ */
+public final class QuadTreeMap {
+    static final int WATER = -1;
+    static final int LAND = -2;
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    private final int level; // the padded square is 2^level cells wide
+    private int[] slots = new int[16];
+    private int slotCount;
+    private Labeling labeling; // the tree never changes once built
+
+    private QuadTreeMap(int width, int height, long[] sortedLandCodes, int landCount) {
+        Preconditions.checkArgument(width >= 0 && height >= 0, "Negative size: " + width + "x" + height);
+        Preconditions.checkArgument(Math.max(width, height) <= (1 << 30) - 2, "Map too large: " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        this.level = 32 - Integer.numberOfLeadingZeros(Math.max(width, height) + 1);
+        slotCount = 1;
+        build(0, sortedLandCodes, 0, landCount, level);
+    }
+
+    /**
+     * Loads the text format of {@link IslandMap#readFromResource}; the land cells are collected and sorted in
+     * Z-order first, so the transient memory is proportional to the land, not to the whole map.
+     */
+    @SneakyThrows
+    public static QuadTreeMap readFromFile(char waterSymbol, Path path) {
+        try (Stream<String> lines = Files.lines(path)) {
+            return fromLines(waterSymbol, lines);
+        }
+    }
+
+    public static QuadTreeMap readFromString(char waterSymbol, String mapContent) {
+        return fromLines(waterSymbol, Arrays.stream(mapContent.split("\n")));
+    }
+
+    /**
+     * Builds a map whose land is exactly the given points, as {@link IslandMap#buildFromPoints} does.
+     */
+    public static QuadTreeMap fromPoints(int width, int height, List<? extends Point<?>> points) {
+        long[] codes = new long[points.size()];
+        for (int i = 0; i < codes.length; i++) {
+            final Point<?> point = points.get(i);
+            Preconditions.checkArgument(point.getX() >= 0 && point.getX() < width
+                    && point.getY() >= 0 && point.getY() < height, "Point out of the map: " + point);
+            codes[i] = code(point.getX() + 1, point.getY() + 1);
+        }
+        return fromCodes(width, height, codes, codes.length);
+    }
+
+    public static QuadTreeMap fromGrid(LandGrid grid) {
+        long[] codes = new long[16];
+        int count = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.isLand(x, y)) {
+                    if (count == codes.length) {
+                        codes = Arrays.copyOf(codes, count << 1);
+                    }
+                    codes[count++] = code(x + 1, y + 1);
+                }
+            }
+        }
+        return fromCodes(grid.getWidth(), grid.getHeight(), codes, count);
+    }
+
+    private static QuadTreeMap fromLines(char waterSymbol, Stream<String> lines) {
+        long[] codes = new long[16];
+        int count = 0;
+        int width = -1;
+        int y = 0;
+        for (String line: (Iterable<String>) lines::iterator) {
+            if (width < 0) {
+                width = line.length();
+            } else {
+                Preconditions.checkArgument(line.length() == width,
+                        "Line y=" + y + " length mismatch: expected " + width + ", but found " + line.length());
+            }
+            for (int x = 0; x < line.length(); x++) {
+                if (line.charAt(x) != waterSymbol) {
+                    if (count == codes.length) {
+                        codes = Arrays.copyOf(codes, count << 1);
+                    }
+                    codes[count++] = code(x + 1, y + 1);
+                }
+            }
+            y++;
+        }
+        return fromCodes(Math.max(width, 0), y, codes, count);
+    }
+
+    private static QuadTreeMap fromCodes(int width, int height, long[] codes, int count) {
+        Arrays.sort(codes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || codes[distinct - 1] != codes[i]) {
+                codes[distinct++] = codes[i];
+            }
+        }
+        return new QuadTreeMap(width, height, codes, distinct);
+    }
+
+    /**
+     * Z-order (Morton) code: the bits of x and y interleaved, x in the even positions.
+     */
+    static long code(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(int value) {
+        long v = value & 0xffffffffL;
+        v = (v | (v << 16)) & 0x0000ffff0000ffffL;
+        v = (v | (v << 8)) & 0x00ff00ff00ff00ffL;
+        v = (v | (v << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * Fills the given slot with the block holding the sorted codes {@code [from, to)}.
+     */
+    private void build(int slot, long[] codes, int from, int to, int blockLevel) {
+        final long cells = 1L << (2 * blockLevel);
+        if (from == to) {
+            slots[slot] = WATER;
+        } else if (to - from == cells) {
+            slots[slot] = LAND;
+        } else {
+            final int first = allocateBlock();
+            slots[slot] = first;
+            final long quarter = cells >>> 2;
+            final long blockStart = codes[from] & -cells;
+            int childFrom = from;
+            for (int q = 0; q < 4; q++) {
+                final long childEnd = blockStart + (q + 1) * quarter;
+                int childTo = childFrom;
+                while (childTo < to && codes[childTo] < childEnd) {
+                    childTo++;
+                }
+                build(first + q, codes, childFrom, childTo, blockLevel - 1);
+                childFrom = childTo;
+            }
+        }
+    }
+
+    private int allocateBlock() {
+        if (slotCount + 4 > slots.length) {
+            slots = Arrays.copyOf(slots, slots.length << 1);
+        }
+        final int first = slotCount;
+        slotCount += 4;
+        return first;
+    }
+
+    public boolean isLand(int x, int y) {
+        return slots[leafAt(x + 1, y + 1)] == LAND;
+    }
+
+    /**
+     * @return slot of the leaf holding the padded cell
+     */
+    private int leafAt(int px, int py) {
+        int slot = 0;
+        int half = 1 << level;
+        while (slots[slot] >= 0) {
+            half >>>= 1;
+            slot = slots[slot] + ((py & half) != 0 ? 2 : 0) + ((px & half) != 0 ? 1 : 0);
+        }
+        return slot;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int leafCount() {
+        // every block of 4 turned one leaf into an inner slot and added four slots:
+        return 1 + 3 * (slotCount - 1) / 4;
+    }
+
+    public long heapBytes() {
+        return 32 + 16 + 4L * slots.length;
+    }
+
+    /**
+     * @return number of lakes of every island, in raster order of the islands' first cells
+     */
+    public List<IslandSummary> countLakes() {
+        return labeling().islandSummaries();
+    }
+
+    public int lakeCountAt(int x, int y) {
+        Preconditions.checkArgument(isLand(x, y), "Point " + x + ":" + y + " is not land");
+        final Labeling labeling = labeling();
+        return labeling.lakeCount[labeling.find(leafAt(x + 1, y + 1))];
+    }
+
+    private Labeling labeling() {
+        if (labeling == null) {
+            labeling = new Labeling();
+        }
+        return labeling;
+    }
+
+    /**
+     * Union-find over leaf slots, with per-root first cell, parent and lake count.
+     */
+    private final class Labeling {
+        final int[] forest = new int[slotCount];
+        final int[] firstX = new int[slotCount];
+        final int[] firstY = new int[slotCount];
+        final int[] lakeCount = new int[slotCount];
+
+        Labeling() {
+            for (int slot = 0; slot < slotCount; slot++) {
+                forest[slot] = slot;
+            }
+            face(0);
+            Arrays.fill(firstY, Integer.MAX_VALUE);
+            findFirstCells(0, 0, 0, 1 << level);
+            final int ocean = find(leafAt(0, 0));
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slots[slot] == WATER && forest[slot] == slot && slot != ocean) {
+                    // a lake; its first cell is inside the map, so the cell north of it exists:
+                    lakeCount[find(leafAt(firstX[slot], firstY[slot] - 1))]++;
+                }
+            }
+        }
+
+        List<IslandSummary> islandSummaries() {
+            final List<long[]> islands = new ArrayList<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slots[slot] == LAND && forest[slot] == slot) {
+                    islands.add(new long[] { firstY[slot], firstX[slot], lakeCount[slot] });
+                }
+            }
+            islands.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            final List<IslandSummary> summaries = new ArrayList<>(islands.size());
+            for (long[] island: islands) {
+                summaries.add(new IslandSummary((int) island[1] - 1, (int) island[0] - 1, (int) island[2]));
+            }
+            return summaries;
+        }
+
+        int find(int slot) {
+            while (forest[slot] != slot) {
+                forest[slot] = forest[forest[slot]];
+                slot = forest[slot];
+            }
+            return slot;
+        }
+
+        void union(int a, int b) {
+            final int rootA = find(a);
+            final int rootB = find(b);
+            if (rootA != rootB) {
+                forest[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+            }
+        }
+
+        private int child(int slot, int quadrant) {
+            return slots[slot] >= 0 ? slots[slot] + quadrant : slot;
+        }
+
+        private boolean isLeaf(int slot) {
+            return slots[slot] < 0;
+        }
+
+        void face(int slot) {
+            if (isLeaf(slot)) {
+                return;
+            }
+            final int first = slots[slot];
+            for (int q = 0; q < 4; q++) {
+                face(first + q);
+            }
+            horizontalEdge(first, first + 1);
+            horizontalEdge(first + 2, first + 3);
+            verticalEdge(first, first + 2);
+            verticalEdge(first + 1, first + 3);
+            vertex(first, first + 1, first + 2, first + 3);
+        }
+
+        /**
+         * Links the leaves along the shared edge of two blocks side by side.
+         */
+        void horizontalEdge(int west, int east) {
+            if (isLeaf(west) && isLeaf(east)) {
+                if (slots[west] == slots[east]) {
+                    union(west, east);
+                }
+                return;
+            }
+            horizontalEdge(child(west, 1), child(east, 0));
+            horizontalEdge(child(west, 3), child(east, 2));
+            vertex(child(west, 1), child(east, 0), child(west, 3), child(east, 2));
+        }
+
+        /**
+         * Links the leaves along the shared edge of two blocks one above the other.
+         */
+        void verticalEdge(int north, int south) {
+            if (isLeaf(north) && isLeaf(south)) {
+                if (slots[north] == slots[south]) {
+                    union(north, south);
+                }
+                return;
+            }
+            verticalEdge(child(north, 2), child(south, 0));
+            verticalEdge(child(north, 3), child(south, 1));
+            vertex(child(north, 2), child(north, 3), child(south, 0), child(south, 1));
+        }
+
+        /**
+         * Links land leaves that touch only diagonally, at the point where four blocks meet.
+         */
+        void vertex(int northWest, int northEast, int southWest, int southEast) {
+            if (isLeaf(northWest) && isLeaf(northEast) && isLeaf(southWest) && isLeaf(southEast)) {
+                if (slots[northWest] == LAND && slots[southEast] == LAND) {
+                    union(northWest, southEast);
+                }
+                if (slots[northEast] == LAND && slots[southWest] == LAND) {
+                    union(northEast, southWest);
+                }
+                return;
+            }
+            vertex(child(northWest, 3), child(northEast, 2), child(southWest, 1), child(southEast, 0));
+        }
+
+        void findFirstCells(int slot, int x, int y, int size) {
+            if (isLeaf(slot)) {
+                final int root = find(slot);
+                if (y < firstY[root] || (y == firstY[root] && x < firstX[root])) {
+                    firstY[root] = y;
+                    firstX[root] = x;
+                }
+                return;
+            }
+            final int half = size >>> 1;
+            final int first = slots[slot];
+            findFirstCells(first, x, y, half);
+            findFirstCells(first + 1, x + half, y, half);
+            findFirstCells(first + 2, x, y + half, half);
+            findFirstCells(first + 3, x + half, y + half, half);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package island;
+
+import com.google.common.base.Preconditions;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Lake and island queries over a frozen {@link IslandMap}, safe to call from any number of threads at once.
+ * Everything shared is computed up front and never written again. The only per-query state, the visited marks
+ * and queue of a traversal, is taken from the map's {@link TraversalContextPool} for one call and given back,
+ * so there are no thread-locals and a context never outlives its query.
+ */
+public final class SharedIslandQueries {
+    private final IslandMap<?> islandMap;
+    private final LandGrid grid;
+    private final ComponentLabeling labeling;
+    private final int[] componentAreas;
+
+    SharedIslandQueries(IslandMap<?> islandMap) {
+        Preconditions.checkState(islandMap.getGrid().isFrozen(), "Map must be frozen before it is shared");
+        this.islandMap = islandMap;
+        this.grid = islandMap.getGrid();
+        this.labeling = UnionFindLabeler.label(grid);
+        this.componentAreas = new int[labeling.getComponentCount()];
+        for (int cell = 0; cell < grid.cellCount(); cell++) {
+            componentAreas[labeling.componentOfCell(cell)]++;
+        }
+    }
+
+    public boolean isLand(int x, int y) {
+        return grid.isLand(x, y);
+    }
+
+    public int lakeCountAt(int x, int y) {
+        return labeling.lakeCountAt(x, y);
+    }
+
+    /**
+     * Lake counts of the islands at many clicks, in input order, {@code -1} for clicks on water.
+     */
+    public int[] lakeCountsAt(int[] xs, int[] ys) {
+        Preconditions.checkArgument(xs.length == ys.length, "Coordinate arrays differ in length");
+        final int[] counts = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            Preconditions.checkArgument(xs[i] >= 0 && xs[i] < grid.getWidth() && ys[i] >= 0 && ys[i] < grid.getHeight(),
+                    "Point " + xs[i] + ":" + ys[i] + " is out of the map");
+            final int component = labeling.componentAt(xs[i], ys[i]);
+            counts[i] = labeling.isLand(component) ? labeling.lakeCount(component) : -1;
+        }
+        return counts;
+    }
+
+    public int islandAreaAt(int x, int y) {
+        Preconditions.checkArgument(grid.isLand(x, y), "Point " + x + ":" + y + " is not land");
+        return componentAreas[labeling.componentAt(x, y)];
+    }
+
+    /**
+     * Visits the cells of the island at the given land cell in BFS order, 8-connected,
+     * until the consumer returns false.
+     *
+     * @return number of cells visited
+     */
+    public int traverseIsland(int x, int y, IntPredicate cellConsumer) {
+        Preconditions.checkArgument(grid.isLand(x, y), "Point " + x + ":" + y + " is not land");
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        final TraversalContextPool pool = islandMap.getTraversalContexts();
+        final TraversalContext context = pool.acquire(grid.cellCount());
+        try {
+            final IntRingQueue queue = context.queue();
+            final int start = grid.index(x, y);
+            context.markVisited(start);
+            context.enqueue(start);
+            int visitedCount = 0;
+            boolean stoppedEarly = false;
+            while (!queue.isEmpty()) {
+                final int cell = queue.poll();
+                visitedCount++;
+                if (!cellConsumer.test(cell)) {
+                    stoppedEarly = true;
+                    break;
+                }
+                final int cx = cell % width;
+                final int cy = cell / width;
+                for (int ny = Math.max(0, cy - 1); ny <= Math.min(height - 1, cy + 1); ny++) {
+                    for (int nx = Math.max(0, cx - 1); nx <= Math.min(width - 1, cx + 1); nx++) {
+                        final int neighbour = ny * width + nx;
+                        context.neighbourExamined();
+                        if (!context.isVisited(neighbour) && grid.isLand(nx, ny)) {
+                            context.markVisited(neighbour);
+                            context.enqueue(neighbour);
+                        }
+                    }
+                }
+            }
+            context.finish(visitedCount, stoppedEarly);
+            return visitedCount;
+        } finally {
+            pool.release(context);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package island;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Counts lakes of every island while the map is fed one row at a time, keeping only two rows of labels and
+ * a union-find over the labels alive in them, so memory is O(width) whatever the height.
+ * <p>
+ * Uses the same rules and the same containment argument as {@link ComponentLabeling}: a component's parent
+ * is the component north of its first cell. A component closes when none of its cells is in the next row;
+ * a closing lake adds one to its parent island, which is still open as it surrounds the lake,
+ * and a closing island is reported to the consumer with its final lake count.
+ * After every row the live labels are renumbered, so label ids never exceed {@code 2 * width + 1}.
+ */
+public final class StreamingLakeCounter {
+    private static final int OCEAN = 0;
+    private static final int UNKNOWN = -1;
+
+    private final char waterSymbol;
+    private final Consumer<IslandSummary> islandConsumer;
+
+    @Getter
+    private int width = -1;
+    @Getter
+    private int rowCount;
+    private boolean finished;
+
+    private int[] previousRow;
+    private int[] currentRow;
+    private int previousLabelCount;
+    private int labelCount;
+
+    // indexed by label:
+    private int[] forest;
+    private boolean[] land;
+    private long[] firstKey;
+    private int[] parent;
+    private int[] lakeCount;
+    private int[] stamp;
+    // renumbering scratch, swapped with the arrays above after every row:
+    private boolean[] spareLand;
+    private long[] spareFirstKey;
+    private int[] spareParent;
+    private int[] spareLakeCount;
+    private int[] newIds;
+    private int[] roots;
+
+    public StreamingLakeCounter(char waterSymbol, Consumer<IslandSummary> islandConsumer) {
+        this.waterSymbol = waterSymbol;
+        this.islandConsumer = islandConsumer;
+    }
+
+    public static List<IslandSummary> countLakes(char waterSymbol, Stream<String> rows) {
+        final List<IslandSummary> islands = new ArrayList<>();
+        final StreamingLakeCounter counter = new StreamingLakeCounter(waterSymbol, islands::add);
+        rows.forEachOrdered(counter::acceptRow);
+        counter.finish();
+        return islands;
+    }
+
+    public static List<IslandSummary> countLakes(char waterSymbol, Path path) throws IOException {
+        try (Stream<String> rows = Files.lines(path)) {
+            return countLakes(waterSymbol, rows);
+        }
+    }
+
+    public void acceptRow(CharSequence row) {
+        Preconditions.checkState(!finished, "Already finished");
+        if (width < 0) {
+            init(row.length());
+        }
+        Preconditions.checkArgument(row.length() == width,
+                "Line y=" + rowCount + " length mismatch: expected " + width + ", but found " + row.length());
+        processRow(row);
+    }
+
+    /**
+     * Closes the map with the ocean beyond its bottom edge, reporting all islands still open.
+     */
+    public void finish() {
+        Preconditions.checkState(!finished, "Already finished");
+        finished = true;
+        if (width >= 0) {
+            processRow(null);
+        }
+    }
+
+    private void init(int rowWidth) {
+        width = rowWidth;
+        previousRow = new int[width];
+        currentRow = new int[width];
+        final int capacity = 2 * width + 2;
+        forest = new int[capacity];
+        land = new boolean[capacity];
+        firstKey = new long[capacity];
+        parent = new int[capacity];
+        lakeCount = new int[capacity];
+        stamp = new int[capacity];
+        spareLand = new boolean[capacity];
+        spareFirstKey = new long[capacity];
+        spareParent = new int[capacity];
+        spareLakeCount = new int[capacity];
+        newIds = new int[capacity];
+        roots = new int[capacity];
+        // row -1 is ocean:
+        previousLabelCount = 1;
+        labelCount = 1;
+        forest[OCEAN] = OCEAN;
+        firstKey[OCEAN] = -1;
+        parent[OCEAN] = UNKNOWN;
+        Arrays.fill(previousRow, OCEAN);
+    }
+
+    /**
+     * @param row the next row, or null for the all-ocean row below the map
+     */
+    private void processRow(CharSequence row) {
+        final int y = rowCount;
+        for (int x = 0; x < width; x++) {
+            final boolean isLand = row != null && row.charAt(x) != waterSymbol;
+            int label = UNKNOWN;
+            if (x > 0 && land[currentRow[x - 1]] == isLand) {
+                label = currentRow[x - 1];
+            }
+            label = join(label, previousRow[x], isLand);
+            if (isLand) {
+                if (x > 0) {
+                    label = join(label, previousRow[x - 1], true);
+                }
+                if (x + 1 < width) {
+                    label = join(label, previousRow[x + 1], true);
+                }
+            } else if (row == null || x == 0 || x + 1 == width) {
+                label = (label == UNKNOWN) ? OCEAN : join(label, OCEAN, false);
+            }
+            if (label == UNKNOWN) {
+                label = newLabel(isLand, (long) y * width + x, previousRow[x]);
+            }
+            currentRow[x] = label;
+        }
+        closeComponents();
+        if (row != null) {
+            renumber();
+            rowCount++;
+        }
+    }
+
+    private int join(int label, int neighbour, boolean isLand) {
+        if (land[neighbour] != isLand) {
+            return label;
+        }
+        if (label == UNKNOWN) {
+            return neighbour;
+        }
+        union(label, neighbour);
+        return label;
+    }
+
+    private int newLabel(boolean isLand, long key, int northLabel) {
+        final int label = labelCount++;
+        forest[label] = label;
+        land[label] = isLand;
+        firstKey[label] = key;
+        parent[label] = northLabel;
+        lakeCount[label] = 0;
+        return label;
+    }
+
+    private int find(int label) {
+        while (forest[label] != label) {
+            forest[label] = forest[forest[label]];
+            label = forest[label];
+        }
+        return label;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (rootB == OCEAN) {
+            rootB = rootA;
+            rootA = OCEAN;
+        }
+        if (firstKey[rootB] < firstKey[rootA]) {
+            firstKey[rootA] = firstKey[rootB];
+            parent[rootA] = parent[rootB];
+        }
+        lakeCount[rootA] += lakeCount[rootB];
+        forest[rootB] = rootA;
+    }
+
+    private void closeComponents() {
+        final int rowStamp = rowCount + 1;
+        stamp[OCEAN] = rowStamp;
+        for (int x = 0; x < width; x++) {
+            stamp[find(currentRow[x])] = rowStamp;
+        }
+        // the labels of the previous row are exactly its live roots:
+        for (int label = 1; label < previousLabelCount; label++) {
+            final int root = find(label);
+            if (stamp[root] == rowStamp) {
+                continue;
+            }
+            stamp[root] = rowStamp;
+            if (land[root]) {
+                islandConsumer.accept(new IslandSummary((int) (firstKey[root] % width),
+                        (int) (firstKey[root] / width), lakeCount[root]));
+            } else {
+                lakeCount[find(parent[root])]++;
+            }
+        }
+    }
+
+    private void renumber() {
+        final int rowStamp = -(rowCount + 1);
+        // give every live root a compact id, in order of appearance:
+        int count = 1;
+        stamp[OCEAN] = rowStamp;
+        newIds[OCEAN] = OCEAN;
+        roots[OCEAN] = OCEAN;
+        for (int x = 0; x < width; x++) {
+            final int root = find(currentRow[x]);
+            if (stamp[root] != rowStamp) {
+                stamp[root] = rowStamp;
+                newIds[root] = count;
+                roots[count++] = root;
+            }
+            currentRow[x] = newIds[root];
+        }
+        // move the root data into the compact slots, resolving parents through the old labels:
+        for (int id = 0; id < count; id++) {
+            final int root = roots[id];
+            spareLand[id] = land[root];
+            spareFirstKey[id] = firstKey[root];
+            spareLakeCount[id] = lakeCount[root];
+            final int parentRoot = (parent[root] == UNKNOWN) ? UNKNOWN : find(parent[root]);
+            // a closed parent can only be a wrong guess of a fragment that still has to merge with an older one:
+            spareParent[id] = (parentRoot != UNKNOWN && stamp[parentRoot] == rowStamp) ? newIds[parentRoot] : UNKNOWN;
+        }
+        for (int id = 0; id < count; id++) {
+            forest[id] = id;
+        }
+        boolean[] swapLand = land;
+        land = spareLand;
+        spareLand = swapLand;
+        long[] swapFirstKey = firstKey;
+        firstKey = spareFirstKey;
+        spareFirstKey = swapFirstKey;
+        int[] swapParent = parent;
+        parent = spareParent;
+        spareParent = swapParent;
+        int[] swapLakeCount = lakeCount;
+        lakeCount = spareLakeCount;
+        spareLakeCount = swapLakeCount;
+
+        final int[] swapRow = previousRow;
+        previousRow = currentRow;
+        currentRow = swapRow;
+        previousLabelCount = count;
+        labelCount = count;
+    }
+}
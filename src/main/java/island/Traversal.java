@@ -2,9 +2,8 @@ package island;
 
 import lombok.RequiredArgsConstructor;
 
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiPredicate;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 @RequiredArgsConstructor
@@ -12,44 +11,114 @@ public class Traversal<P> {
 
     private final IslandMap<P> islandMap;
 
-    private final AtomicInteger marker = new AtomicInteger();
-
     public int traverseBFS(Point<P> startPoint,
                             Predicate<Point<P>> pointPreConsumer,
                             BiPredicate<Point<P>, Point<P>> businessNeighbourFilter,
                            Predicate<Point<P>> pointPostConsumer) {
-        final Integer uniqueMark = marker.incrementAndGet();
-        final Deque<Point<P>> deque = new LinkedList<>();
-        assert !startPoint.isVisited(uniqueMark);
-        deque.offer(startPoint);
-        int visitedCount = 0;
-        while (true) {
-            Point<P> point = deque.poll();
-            if (point == null) {
-                break; // finish
-            }
-            if (!point.isVisited(uniqueMark)) {
+        final int width = islandMap.getWidth();
+        final TraversalContextPool pool = islandMap.getTraversalContexts();
+        final TraversalContext context = pool.acquire(islandMap.getGrid().cellCount());
+        try {
+            // A cell may be queued more than once; it is visited when first dequeued:
+            final IntRingQueue queue = context.queue();
+            context.enqueue(islandMap.indexOf(startPoint));
+            int visitedCount = 0;
+            boolean stoppedEarly = false;
+            while (!queue.isEmpty()) {
+                final int pointIndex = queue.poll();
+                if (context.isVisited(pointIndex)) {
+                    continue;
+                }
+                final Point<P> point = islandMap.getPoint(pointIndex % width, pointIndex / width);
                 boolean result = pointPreConsumer.test(point);
                 visitedCount++;
-                point.markVisited(uniqueMark);
-                assert point.isVisited(uniqueMark);
+                context.markVisited(pointIndex);
                 if (!result) {
+                    stoppedEarly = true;
                     break; // business decided to stop traverse
                 }
-                Point<P>[] neighbourPoints = islandMap.getNeighbours(point);
-                //System.out.println(point + ", neighbours: " + Arrays.toString(neighbourPoints));
-                Arrays.stream(neighbourPoints)
-                        .filter(Objects::nonNull)
-                        .filter(n -> !n.isVisited(uniqueMark))
-                        .filter(n -> businessNeighbourFilter.test(point, n))
-                        .forEachOrdered(deque::offer);
+                for (Point<P> n: islandMap.getNeighbours(point)) {
+                    if (n == null) {
+                        continue;
+                    }
+                    context.neighbourExamined();
+                    if (!context.isVisited(islandMap.indexOf(n)) && businessNeighbourFilter.test(point, n)) {
+                        context.enqueue(islandMap.indexOf(n));
+                    }
+                }
                 result = pointPostConsumer.test(point);
                 if (!result) {
+                    stoppedEarly = true;
                     break; // business decided to stop traverse
                 }
             }
+            context.finish(visitedCount, stoppedEarly);
+            return visitedCount;
+        } finally {
+            pool.release(context);
         }
-        return visitedCount;
     }
 
+    /**
+     * Same contract as {@link #traverseBFS(Point, Predicate, BiPredicate, Predicate)}, but on cell indices
+     * ({@code y * width + x}) and without allocating in the loop. A cell is stamped visited when it is
+     * enqueued, so the neighbour filter sees each cell only until it accepts it once.
+     */
+    public int traverseBFS(int startIndex,
+                           IntPredicate cellPreConsumer,
+                           IntBiPredicate businessNeighbourFilter,
+                           IntPredicate cellPostConsumer) {
+        final LandGrid grid = islandMap.getGrid();
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        final TraversalContextPool pool = islandMap.getTraversalContexts();
+        final TraversalContext context = pool.acquire(grid.cellCount());
+        try {
+            final IntRingQueue queue = context.queue();
+            context.markVisited(startIndex);
+            context.enqueue(startIndex);
+            int visitedCount = 0;
+            boolean stoppedEarly = false;
+            while (!queue.isEmpty()) {
+                final int cell = queue.poll();
+                visitedCount++;
+                if (!cellPreConsumer.test(cell)) {
+                    stoppedEarly = true;
+                    break; // business decided to stop traverse
+                }
+                final int x = cell % width;
+                final int y = cell / width;
+                // same order as IslandMap.getNeighbours(): north, east, south, west
+                if (y > 0) {
+                    offerNeighbour(context, cell, cell - width, businessNeighbourFilter);
+                }
+                if (x + 1 < width) {
+                    offerNeighbour(context, cell, cell + 1, businessNeighbourFilter);
+                }
+                if (y + 1 < height) {
+                    offerNeighbour(context, cell, cell + width, businessNeighbourFilter);
+                }
+                if (x > 0) {
+                    offerNeighbour(context, cell, cell - 1, businessNeighbourFilter);
+                }
+                if (!cellPostConsumer.test(cell)) {
+                    stoppedEarly = true;
+                    break; // business decided to stop traverse
+                }
+            }
+            context.finish(visitedCount, stoppedEarly);
+            return visitedCount;
+        } finally {
+            pool.release(context);
+        }
+    }
+
+    private static void offerNeighbour(TraversalContext context, int cell, int neighbour,
+                                       IntBiPredicate businessNeighbourFilter) {
+        context.neighbourExamined();
+        if (!context.isVisited(neighbour) && businessNeighbourFilter.test(cell, neighbour)) {
+            context.markVisited(neighbour);
+            context.enqueue(neighbour);
+        }
+    }
 }
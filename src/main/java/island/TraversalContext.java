@@ -0,0 +1,66 @@
+package island;
+
+import java.util.Arrays;
+
+/**
+ * Visited marks, queue and counters of one traversal at a time, reused by any number of traversals of one map.
+ * Marks are epoch stamps, so {@link #reset} is O(1); the stamps are cleared once every 2^31 resets.
+ * The counters go to {@link Metrics#current()} once the traversal is over.
+ */
+public final class TraversalContext {
+    private final IntRingQueue queue = new IntRingQueue();
+    private int[] visitedEpoch = new int[0];
+    private int epoch;
+
+    private IslandMetrics metrics = IslandMetrics.NOOP;
+    private long startNanos;
+    private long neighboursExamined;
+    private int peakQueueDepth;
+
+    /**
+     * Forgets all visited marks and queued cells of the previous traversal.
+     */
+    public void reset(int cellCount) {
+        if (visitedEpoch.length != cellCount) {
+            visitedEpoch = new int[cellCount];
+            epoch = 0;
+        } else if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitedEpoch, 0);
+            epoch = 0;
+        }
+        epoch++;
+        queue.clear();
+        metrics = Metrics.current();
+        startNanos = metrics.isEnabled() ? System.nanoTime() : 0;
+        neighboursExamined = 0;
+        peakQueueDepth = 0;
+    }
+
+    public boolean isVisited(int cell) {
+        return visitedEpoch[cell] == epoch;
+    }
+
+    public void markVisited(int cell) {
+        visitedEpoch[cell] = epoch;
+    }
+
+    IntRingQueue queue() {
+        return queue;
+    }
+
+    void enqueue(int cell) {
+        queue.offer(cell);
+        peakQueueDepth = Math.max(peakQueueDepth, queue.size());
+    }
+
+    void neighbourExamined() {
+        neighboursExamined++;
+    }
+
+    void finish(long cellsVisited, boolean stoppedEarly) {
+        if (metrics.isEnabled()) {
+            metrics.traversalFinished(cellsVisited, neighboursExamined, peakQueueDepth, stoppedEarly,
+                    System.nanoTime() - startNanos);
+        }
+    }
+}
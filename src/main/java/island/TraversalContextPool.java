@@ -0,0 +1,33 @@
+package island;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Idle {@link TraversalContext}s of one map. A traversal takes a context for its duration and gives it back,
+ * so the number of contexts ever created is the deepest nesting of traversals, whatever the number of queries.
+ * Safe for concurrent use: each thread gets a context of its own, without thread-locals.
+ */
+public final class TraversalContextPool {
+    private final Deque<TraversalContext> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger createdCount = new AtomicInteger();
+
+    public TraversalContext acquire(int cellCount) {
+        TraversalContext context = idle.poll();
+        if (context == null) {
+            context = new TraversalContext();
+            createdCount.incrementAndGet();
+        }
+        context.reset(cellCount);
+        return context;
+    }
+
+    public void release(TraversalContext context) {
+        idle.push(context);
+    }
+
+    public int getCreatedCount() {
+        return createdCount.get();
+    }
+}
@@ -0,0 +1,86 @@
+package island;
+
+/**
+ * Two-pass scanline labeling: the first pass links every cell to its already scanned neighbours
+ * (west, north-west, north, north-east for land; west, north for water) in a union-find forest over cell
+ * indices, the second pass turns the forest into component ids. Both passes read the grid sequentially.
+ * <p>
+ * Unions always keep the smaller cell index as the root, so every cell's parent precedes it in raster order
+ * and the root of a component is its first cell.
+ */
+public final class UnionFindLabeler {
+
+    private UnionFindLabeler() {
+    }
+
+    public static ComponentLabeling label(LandGrid grid) {
+        final int[] forest = new int[grid.cellCount()];
+        linkRows(grid, forest, 0, grid.getHeight());
+        return ComponentLabeling.fromForest(grid, forest);
+    }
+
+    /**
+     * First pass over rows {@code [fromRow, toRow)}; row {@code fromRow} is not linked to the row above it.
+     * Only touches the forest entries of these rows.
+     */
+    static void linkRows(LandGrid grid, int[] forest, int fromRow, int toRow) {
+        final int width = grid.getWidth();
+        for (int y = fromRow; y < toRow; y++) {
+            final boolean hasNorth = y > fromRow;
+            for (int x = 0; x < width; x++) {
+                final int cell = y * width + x;
+                forest[cell] = cell;
+                final boolean land = grid.isLand(x, y);
+                if (x > 0 && grid.isLand(x - 1, y) == land) {
+                    union(forest, cell, cell - 1);
+                }
+                if (hasNorth) {
+                    linkNorth(grid, forest, x, y, land);
+                }
+            }
+        }
+    }
+
+    /**
+     * Links row {@code y} to row {@code y - 1}, for rows whose first pass did not see their northern neighbours.
+     */
+    static void linkSeam(LandGrid grid, int[] forest, int y) {
+        for (int x = 0; x < grid.getWidth(); x++) {
+            linkNorth(grid, forest, x, y, grid.isLand(x, y));
+        }
+    }
+
+    private static void linkNorth(LandGrid grid, int[] forest, int x, int y, boolean land) {
+        final int width = grid.getWidth();
+        final int cell = y * width + x;
+        if (grid.isLand(x, y - 1) == land) {
+            union(forest, cell, cell - width);
+        }
+        if (land) {
+            if (x > 0 && grid.isLand(x - 1, y - 1)) {
+                union(forest, cell, cell - width - 1);
+            }
+            if (x + 1 < width && grid.isLand(x + 1, y - 1)) {
+                union(forest, cell, cell - width + 1);
+            }
+        }
+    }
+
+    static int find(int[] forest, int cell) {
+        while (forest[cell] != cell) {
+            forest[cell] = forest[forest[cell]]; // path halving
+            cell = forest[cell];
+        }
+        return cell;
+    }
+
+    static void union(int[] forest, int a, int b) {
+        final int rootA = find(forest, a);
+        final int rootB = find(forest, b);
+        if (rootA < rootB) {
+            forest[rootB] = rootA;
+        } else if (rootB < rootA) {
+            forest[rootA] = rootB;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class BinaryMapFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @EnumSource(BinaryMapFormat.Encoding.class)
+    void roundTrip(BinaryMapFormat.Encoding encoding) {
+        for (LandGrid grid: new LandGrid[] {
+                IslandMap.readFromResource('.', resourcePath("island1.txt")).getGrid(),
+                ComponentLabelingTest.randomGrid(3, 130, 17, 0.5),
+                ComponentLabelingTest.randomGrid(4, 64, 3, 1.0),
+                new LandGrid(0, 0) }) {
+            final Path file = tempDir.resolve("map-" + encoding + ".islm");
+            BinaryMapFormat.write(grid, file, encoding);
+            final LandGrid loaded = BinaryMapFormat.read(file);
+            then(loaded.getWidth()).isEqualTo(grid.getWidth());
+            then(loaded.getHeight()).isEqualTo(grid.getHeight());
+            then(loaded.words()).isEqualTo(grid.words());
+        }
+    }
+
+    @Test
+    void picksTheSmallerEncoding() throws Exception {
+        final Path island1Path = resourcePath("island1.txt");
+        final IslandMap<?> islandMap = IslandMap.readFromResource('.', island1Path);
+        final Path file = tempDir.resolve("island1.islm");
+        BinaryMapFormat.write(islandMap.getGrid(), file);
+        then(Files.size(file)).isLessThan(Files.size(island1Path) / 8);
+        then(IslandMap.readFromBinaryFile(file).export('.', '*')).isEqualTo(islandMap.export('.', '*'));
+    }
+
+    @Test
+    void detectsCorruption() throws Exception {
+        final Path file = tempDir.resolve("corrupt.islm");
+        BinaryMapFormat.write(ComponentLabelingTest.randomGrid(5, 100, 100, 0.3), file, BinaryMapFormat.Encoding.BITS);
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+        thenThrownBy(() -> BinaryMapFormat.read(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Checksum mismatch");
+    }
+
+    @Test
+    void detectsCorruptedHeader() throws Exception {
+        final Path file = tempDir.resolve("corrupt-header.islm");
+        BinaryMapFormat.write(ComponentLabelingTest.randomGrid(6, 130, 20, 0.3), file, BinaryMapFormat.Encoding.BITS);
+        final byte[] bytes = Files.readAllBytes(file);
+        // width 130 -> 150 keeps 3 words per row, so the payload size still fits:
+        then(bytes[8]).isEqualTo((byte) 130);
+        bytes[8] = (byte) 150;
+        Files.write(file, bytes);
+        thenThrownBy(() -> BinaryMapFormat.read(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Checksum mismatch");
+    }
+}
@@ -0,0 +1,55 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BitFloodFillTest {
+
+    private static boolean isSet(long[] mask, LandGrid grid, int cell) {
+        final int x = cell % grid.getWidth();
+        final int y = cell / grid.getWidth();
+        return (mask[y * grid.getWordsPerRow() + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    @Test
+    void matchesComponentLabeling() {
+        final Random random = new Random(3);
+        for (int[] size: new int[][] { { 1, 1 }, { 64, 9 }, { 65, 40 }, { 150, 70 }, { 200, 3 } }) {
+            for (double landDensity: new double[] { 0.3, 0.5, 0.7 }) {
+                final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), size[0], size[1], landDensity);
+                final ComponentLabeling labeling = ComponentLabeling.label(grid);
+
+                final long[] ocean = BitFloodFill.ocean(grid);
+                for (int cell = 0; cell < grid.cellCount(); cell++) {
+                    then(isSet(ocean, grid, cell)).isEqualTo(labeling.isOcean(labeling.componentOfCell(cell)));
+                }
+                for (int component = 0; component < labeling.getComponentCount(); component++) {
+                    if (!labeling.isLand(component)) {
+                        continue;
+                    }
+                    final int first = labeling.firstCell(component);
+                    final long[] island = BitFloodFill.island(grid, first % grid.getWidth(), first / grid.getWidth());
+                    for (int cell = 0; cell < grid.cellCount(); cell++) {
+                        then(isSet(island, grid, cell)).isEqualTo(labeling.componentOfCell(cell) == component);
+                    }
+                    then(BitFloodFill.lakeCount(grid, first % grid.getWidth(), first / grid.getWidth()))
+                            .as("island at %d", first)
+                            .isEqualTo(labeling.lakeCount(component));
+                }
+            }
+        }
+    }
+
+    @Test
+    void island0() {
+        final LandGrid grid = IslandMap.readFromResource('.', resourcePath("island0.txt")).getGrid();
+        final long[] island = BitFloodFill.island(grid, 22, 1);
+        then(BitFloodFill.cardinality(island)).isEqualTo(136);
+        then(BitFloodFill.lakeCount(grid, 22, 1)).isEqualTo(3);
+        then(BitFloodFill.cardinality(BitFloodFill.lakes(grid, island))).isEqualTo(53);
+    }
+}
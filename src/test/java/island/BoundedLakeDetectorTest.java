@@ -0,0 +1,110 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class BoundedLakeDetectorTest {
+
+    @Test
+    void matchesComponentLabeling() {
+        final Random random = new Random(11);
+        for (double landDensity: new double[] { 0.3, 0.5, 0.7 }) {
+            final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), 53, 47, landDensity);
+            final ComponentLabeling labeling = ComponentLabeling.label(grid);
+            final BoundedLakeDetector detector = new BoundedLakeDetector(grid);
+            for (int component = 0; component < labeling.getComponentCount(); component++) {
+                if (labeling.isLand(component)) {
+                    final int first = labeling.firstCell(component);
+                    final LakeDetection detection = detector.detect(first % grid.getWidth(), first / grid.getWidth());
+                    then(detection.getLakeCount()).isEqualTo(labeling.lakeCount(component));
+                    then(detection.isExact()).isTrue();
+                }
+            }
+        }
+    }
+
+    @Test
+    void workIsBoundedByTheIsland() {
+        // a 5x5 ring with a one-cell lake in the middle of a large ocean:
+        final LandGrid grid = new LandGrid(2000, 2000);
+        for (int i = 0; i < 5; i++) {
+            grid.setLand(1000 + i, 1000, true);
+            grid.setLand(1000 + i, 1004, true);
+            grid.setLand(1000, 1000 + i, true);
+            grid.setLand(1004, 1000 + i, true);
+        }
+        grid.setLand(1002, 1002, true);
+
+        final LakeDetection detection = new BoundedLakeDetector(grid).detect(1000, 1000);
+        then(detection.getLakeCount()).isEqualTo(1);
+        then(detection.getIslandCellCount()).isEqualTo(16);
+        // the ring, the lake with the cell inside it, and the 20 cells around the ring, each stopping at once:
+        then(detection.getCellsExplored()).isEqualTo(16 + 9 + 20);
+    }
+
+    @Test
+    void capLeavesLargeRegionsUndecided() {
+        final IslandMap<?> islandMap = IslandMap.readFromString('.', """
+                .........
+                .#######.
+                .#.....#.
+                .#.....#.
+                .#######.
+                .........
+                .###.....
+                .#.#.....
+                .###.....""");
+        final LakeDetection capped = new BoundedLakeDetector(islandMap.getGrid(), 5).detect(1, 1);
+        then(capped.getLakeCount()).isZero();
+        then(capped.getUndecidedRegions()).isEqualTo(1);
+        then(capped.isExact()).isFalse();
+
+        final BoundedLakeDetector detector = new BoundedLakeDetector(islandMap.getGrid(), 5);
+        then(detector.detect(1, 6).getLakeCount()).isEqualTo(1);
+        then(new BoundedLakeDetector(islandMap.getGrid()).detect(1, 1).getLakeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchOfClicks() {
+        final Random random = new Random(19);
+        final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), 97, 61, 0.6);
+        final ComponentLabeling labeling = ComponentLabeling.label(grid);
+        final int[] xs = new int[500];
+        final int[] ys = new int[500];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(grid.getWidth());
+            ys[i] = random.nextInt(grid.getHeight());
+        }
+        final int[] counts = IslandMap.fromGrid(grid, null).lakeCountsAt(xs, ys);
+        for (int i = 0; i < xs.length; i++) {
+            final int component = labeling.componentAt(xs[i], ys[i]);
+            then(counts[i]).isEqualTo(labeling.isLand(component) ? labeling.lakeCount(component) : -1);
+        }
+    }
+
+    @Test
+    void batchesDoNotReuseEarlierAnswers() {
+        final LandGrid grid = IslandMap.readFromString('.', "" +
+                "###.\n" +
+                "#.#.\n" +
+                "###.\n").getGrid();
+        final BoundedLakeDetector detector = new BoundedLakeDetector(grid);
+        then(detector.lakeCounts(new int[] { 0, 2, 1 }, new int[] { 0, 2, 1 })).containsExactly(1, 1, -1);
+        grid.setLand(1, 1, true);
+        then(detector.lakeCounts(new int[] { 0, 1, 3 }, new int[] { 0, 1, 0 })).containsExactly(0, 0, -1);
+    }
+
+    @Test
+    void clicksOutsideTheMapAreRejected() {
+        final BoundedLakeDetector detector = new BoundedLakeDetector(new LandGrid(2, 1));
+        thenThrownBy(() -> detector.lakeCounts(new int[] { 0, 2 }, new int[] { 0, 0 }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2:0");
+        thenThrownBy(() -> detector.lakeCounts(new int[] { 0 }, new int[] { -1 }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
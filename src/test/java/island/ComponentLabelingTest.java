@@ -0,0 +1,78 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ComponentLabelingTest {
+
+    static LandGrid randomGrid(long seed, int width, int height, double landDensity) {
+        final Random random = new Random(seed);
+        final LandGrid grid = new LandGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.setLand(x, y, random.nextDouble() < landDensity);
+            }
+        }
+        return grid;
+    }
+
+    static void thenSameLabeling(ComponentLabeling actual, ComponentLabeling expected) {
+        then(actual.getComponentCount()).isEqualTo(expected.getComponentCount());
+        final LandGrid grid = expected.getGrid();
+        for (int cell = 0; cell < grid.cellCount(); cell++) {
+            then(actual.componentOfCell(cell)).isEqualTo(expected.componentOfCell(cell));
+        }
+        for (int component = 0; component < expected.getComponentCount(); component++) {
+            then(actual.parent(component)).isEqualTo(expected.parent(component));
+            then(actual.isOcean(component)).isEqualTo(expected.isOcean(component));
+            then(actual.lakeCount(component)).isEqualTo(expected.lakeCount(component));
+        }
+    }
+
+    @Test
+    void unionFindMatchesBfsOnIsland1() {
+        LandGrid grid = IslandMap.readFromResource('.', resourcePath("island1.txt")).getGrid();
+        thenSameLabeling(UnionFindLabeler.label(grid), ComponentLabeling.label(grid));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = { 0.1, 0.35, 0.5, 0.65, 0.9 })
+    void unionFindMatchesBfsOnNoise(double landDensity) {
+        LandGrid grid = randomGrid(42, 131, 77, landDensity);
+        thenSameLabeling(UnionFindLabeler.label(grid), ComponentLabeling.label(grid));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 3, 16, 1000 })
+    void parallelMatchesSequential(int stripRows) {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (double landDensity: new double[] { 0.2, 0.5, 0.8 }) {
+                LandGrid grid = randomGrid(7, 97, 203, landDensity);
+                thenSameLabeling(ParallelLabeler.label(grid, pool, stripRows), UnionFindLabeler.label(grid));
+            }
+            LandGrid island1 = IslandMap.readFromResource('.', resourcePath("island1.txt")).getGrid();
+            thenSameLabeling(ParallelLabeler.label(island1, pool, stripRows), UnionFindLabeler.label(island1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 5 })
+    void emptyMaps(int size) {
+        for (LandGrid grid: new LandGrid[] { new LandGrid(0, size), new LandGrid(size, 0) }) {
+            then(ComponentLabeling.label(grid).getComponentCount()).isZero();
+            then(UnionFindLabeler.label(grid).getComponentCount()).isZero();
+            then(ParallelLabeler.label(grid).getComponentCount()).isZero();
+            then(IslandMap.fromGrid(grid, null).countLakes()).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IncrementalLakeCounterTest {
+
+    private static void thenMatchesFullLabeling(IncrementalLakeCounter counter) {
+        final ComponentLabeling labeling = ComponentLabeling.label(counter.getGrid());
+        final int width = counter.getGrid().getWidth();
+        int islands = 0;
+        for (int component = 0; component < labeling.getComponentCount(); component++) {
+            if (labeling.isLand(component)) {
+                islands++;
+                final int first = labeling.firstCell(component);
+                then(counter.lakeCountAt(first % width, first / width))
+                        .as("island at %d:%d", first % width, first / width)
+                        .isEqualTo(labeling.lakeCount(component));
+            }
+        }
+        then(counter.islandCount()).isEqualTo(islands);
+    }
+
+    @Test
+    void matchesFullLabelingUnderRandomFlips() {
+        final Random random = new Random(17);
+        for (double landDensity: new double[] { 0.3, 0.5, 0.7 }) {
+            final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), 41, 29, landDensity);
+            final IncrementalLakeCounter counter = new IncrementalLakeCounter(grid);
+            thenMatchesFullLabeling(counter);
+            for (int flip = 0; flip < 200; flip++) {
+                final int x = random.nextInt(grid.getWidth());
+                final int y = random.nextInt(grid.getHeight());
+                counter.setLand(x, y, !grid.isLand(x, y));
+                if (flip % 10 == 0) {
+                    thenMatchesFullLabeling(counter);
+                }
+            }
+            thenMatchesFullLabeling(counter);
+        }
+    }
+
+    @Test
+    void islandMapEdits() {
+        final IslandMap<MarkerPayload> islandMap = IslandMap.readFromResource('.', resourcePath("island0.txt"),
+                (x, y) -> new MarkerPayload());
+        then(islandMap.lakeCountAt(22, 1)).isEqualTo(3);
+
+        // close the gap at 19:3 between the lake and the bay south of it:
+        islandMap.setLand(19, 3, true);
+        then(islandMap.lakeCountAt(22, 1)).isEqualTo(3);
+        // open the northern lake to the ocean:
+        islandMap.setLand(18, 2, false);
+        islandMap.setLand(18, 1, false);
+        then(islandMap.lakeCountAt(22, 1)).isEqualTo(2);
+        islandMap.setLand(18, 1, true);
+        then(islandMap.lakeCountAt(22, 1)).isEqualTo(3);
+        then(islandMap.getPoint(18, 1).isLand()).isTrue();
+    }
+
+    @Test
+    void listenersHearOfCreatedIslands() {
+        final LandGrid grid = IslandMap.readFromString('.', "" +
+                "#....\n" +
+                ".....\n" +
+                ".....\n").getGrid();
+        final IncrementalLakeCounter counter = new IncrementalLakeCounter(grid);
+        final List<Integer> changed = new ArrayList<>();
+        counter.addChangeListener(changed::add);
+
+        counter.setLand(3, 1, true);
+        then(changed).containsExactly(grid.index(3, 1));
+        then(counter.islandCount()).isEqualTo(2);
+
+        changed.clear();
+        counter.setLand(1, 1, true);
+        then(changed).contains(grid.index(0, 0));
+    }
+}
@@ -3,15 +3,19 @@ package island;
 import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
 
 // TODO:
 //  1) count map boundaries as sea (check if it works okay);
@@ -51,6 +55,188 @@ class IslandMapTest {
         then(actualExported).isEqualTo(expected);
     }
 
+    @Test
+    void testCompactGridFootprint() {
+        Path island1Path = resourcePath("island1.txt");
+        IslandMap<?> bare = IslandMap.readFromResource('.', island1Path);
+        IslandMap<MarkerPayload> withPayloads = IslandMap.readFromResource('.', island1Path,
+                (x, y) -> new MarkerPayload());
+        final int cells = bare.getWidth() * bare.getHeight();
+
+        double bareBytesPerCell = (double) bare.estimateHeapBytes() / cells;
+        double payloadBytesPerCell = (double) withPayloads.estimateHeapBytes() / cells;
+        then(bareBytesPerCell).isLessThan(0.2);
+        then(payloadBytesPerCell).isLessThan(4.5);
+        // no payload is touched yet, so the payloads add only the table of page references:
+        then(withPayloads.estimateHeapBytes() - bare.estimateHeapBytes()).isLessThan(cells / 100);
+
+        then(bare.export('.', '*')).isEqualTo(withPayloads.export('.', '*'));
+        then(bare.export('.', '*')).isEqualTo(readResourceAsString(island1Path));
+    }
+
+    @Test
+    void testBuildFromPoints() {
+        IslandMap<MarkerPayload> islandMap = IslandMap.buildFromPoints(70, 3,
+                List.of(new Point<>(0, 0, true, null), new Point<>(65, 1, true, null), new Point<>(69, 2, true, null)),
+                (x, y) -> new MarkerPayload());
+        then(islandMap.getPoint(0, 0).isLand()).isTrue();
+        then(islandMap.getPoint(65, 1).isLand()).isTrue();
+        then(islandMap.getPoint(69, 2).isLand()).isTrue();
+        then(islandMap.getPoint(64, 1).isLand()).isFalse();
+        then(islandMap.getPoint(5, 2).getMutablePayload()).isSameAs(islandMap.getPoint(5, 2).getMutablePayload());
+    }
+
+    @Test
+    void testPayloadsAreCreatedOnDemand() {
+        final AtomicInteger created = new AtomicInteger();
+        IslandMap<MarkerPayload> islandMap = IslandMap.readFromString('.', example0(), (x, y) -> {
+            created.incrementAndGet();
+            return new MarkerPayload();
+        });
+        then(created.get()).isZero();
+
+        final Point<MarkerPayload> point = islandMap.getPoint(3, 2);
+        then(created.get()).isZero();
+        point.getMutablePayload().setClassification(Classification.WATER_NEAR_ISLAND);
+        then(islandMap.getPoint(3, 2).getMutablePayload()).isSameAs(point.getMutablePayload());
+        then(islandMap.materializedPayloadCount()).isEqualTo(1);
+
+        final String exported = islandMap.export('.', '#');
+        then(islandMap.materializedPayloadCount()).isEqualTo(1);
+        // one payload kept, and a fresh one, not kept, for every other cell:
+        then(created.get()).isEqualTo(islandMap.getWidth() * islandMap.getHeight());
+        final String[] lines = example0().split("\n");
+        lines[2] = lines[2].substring(0, 3) + Classification.WATER_NEAR_ISLAND + lines[2].substring(4);
+        then(exported).isEqualTo(String.join("\n", lines) + "\n");
+    }
+
+    @Test
+    void testNullPayloadsAreAskedOnce() {
+        final AtomicInteger created = new AtomicInteger();
+        IslandMap<MarkerPayload> islandMap = IslandMap.readFromString('.', example0(), (x, y) -> {
+            created.incrementAndGet();
+            return null;
+        });
+        then(islandMap.getPoint(3, 2).getMutablePayload()).isNull();
+        then(islandMap.getPoint(3, 2).getMutablePayload()).isNull();
+        then(created.get()).isEqualTo(1);
+        then(islandMap.materializedPayloadCount()).isZero();
+        then(islandMap.export('.', '#')).isEqualTo(example0());
+    }
+
+    @Test
+    void testIndexTraversalMatchesPointTraversal() {
+        IslandMap<Void> islandMap = IslandMap.readFromResource('.', resourcePath("island1.txt"));
+        final LandGrid grid = islandMap.getGrid();
+        final Traversal<Void> traversal = new Traversal<>(islandMap);
+
+        final int pointCount = traversal.traverseBFS(islandMap.getPoint(2, 7),
+                p -> true, (p, n) -> n.isLand(), p -> true);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            final int indexCount = traversal.traverseBFS(grid.index(2, 7),
+                    c -> true, (c, n) -> grid.isLand(n), c -> true);
+            then(indexCount).isEqualTo(pointCount);
+        }
+
+        final AtomicInteger stopAfter = new AtomicInteger(10);
+        then(traversal.traverseBFS(grid.index(2, 7), c -> stopAfter.decrementAndGet() > 0,
+                (c, n) -> grid.isLand(n), c -> true)).isEqualTo(10);
+    }
+
+    @Test
+    void testTraversalContextsAreReused() {
+        IslandMap<Void> islandMap = IslandMap.readFromResource('.', resourcePath("island1.txt"));
+        final LandGrid grid = islandMap.getGrid();
+        final Traversal<Void> traversal = new Traversal<>(islandMap);
+
+        final int expected = traversal.traverseBFS(grid.index(2, 7), c -> true, (c, n) -> grid.isLand(n), c -> true);
+        for (int query = 0; query < 10_000; query++) {
+            then(traversal.traverseBFS(grid.index(2, 7), c -> true, (c, n) -> grid.isLand(n), c -> true))
+                    .isEqualTo(expected);
+        }
+        // a traversal nested in another one takes a context of its own:
+        final AtomicInteger nestedVisits = new AtomicInteger();
+        traversal.traverseBFS(islandMap.getPoint(2, 7), p -> {
+            nestedVisits.addAndGet(traversal.traverseBFS(grid.index(p.getX(), p.getY()),
+                    c -> true, (c, n) -> grid.isLand(n), c -> true));
+            return false;
+        }, (p, n) -> n.isLand(), p -> true);
+        then(nestedVisits.get()).isEqualTo(expected);
+        then(islandMap.getTraversalContexts().getCreatedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testCountLakes() {
+        then(IslandMap.readFromString('.', example0()).countLakes())
+                .containsExactly(new IslandSummary(15, 1, 3));
+
+        IslandMap<?> islandMap = IslandMap.readFromResource('.', resourcePath("island1.txt"));
+        then(islandMap.labelComponents().lakeCountAt(2, 7)).isEqualTo(4);
+    }
+
+    @Test
+    void testCountLakesNesting() {
+        String map = """
+                ...........
+                .#########.
+                .#.......#.
+                .#.#####.#.
+                .#.#.#.#.#.
+                .#.#####.#.
+                .#.......#.
+                .#########.
+                ...........
+                ..#.#......
+                ...#.......
+                ..#.#......
+                ...........
+                """;
+        // the island in the lake has 2 lakes of its own, which do not count for the outer island;
+        // the diagonal X shape at the bottom is one island with no lakes, as land wins diagonals.
+        then(IslandMap.readFromString('.', map).countLakes()).containsExactly(
+                new IslandSummary(1, 1, 1),
+                new IslandSummary(3, 3, 2),
+                new IslandSummary(2, 9, 0));
+    }
+
+    @Test
+    void testReadFromMappedFile(@TempDir Path tempDir) throws IOException {
+        Path island1Path = resourcePath("island1.txt");
+        MappedMapReader reader = new MappedMapReader();
+        IslandMap<?> mapped = reader.read('.', island1Path);
+        then(reader.getBytesRead()).isEqualTo(Files.size(island1Path));
+        then(reader.throughputMbPerSecond()).isPositive();
+        then(mapped.export('.', '*')).isEqualTo(readResourceAsString(island1Path));
+
+        Path crlfNoFinalEnd = tempDir.resolve("crlf.txt");
+        Files.writeString(crlfNoFinalEnd, example0().strip().replace("\n", "\r\n"));
+        then(IslandMap.readFromMappedFile('.', crlfNoFinalEnd).export('.', '#')).isEqualTo(example0());
+
+        Path ragged = tempDir.resolve("ragged.txt");
+        Files.writeString(ragged, "....\n.##.\n.#.\n....\n");
+        thenThrownBy(() -> IslandMap.readFromMappedFile('.', ragged))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Line y=2 length mismatch: expected 4, but found 3");
+
+        Path short2 = tempDir.resolve("short2.txt");
+        Files.writeString(short2, "....\n..\n.\n");
+        thenThrownBy(() -> IslandMap.readFromMappedFile('.', short2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Line y=1 length mismatch: expected 4, but found 2");
+
+        // the first line end decides the expected number of lines, in both directions:
+        Path crlfThenLf = tempDir.resolve("crlf-then-lf.txt");
+        Files.writeString(crlfThenLf, "....\r\n.##.\n.##.\n.##.\n.##.\n....\n");
+        thenThrownBy(() -> IslandMap.readFromMappedFile('.', crlfThenLf))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line y=1 ends with \\n, but the first line ends with \\r\\n");
+        Path lfThenCrlf = tempDir.resolve("lf-then-crlf.txt");
+        Files.writeString(lfThenCrlf, "....\n.##.\r\n....\r\n");
+        thenThrownBy(() -> IslandMap.readFromMappedFile('.', lfThenCrlf))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line y=1 ends with \\r\\n, but the first line ends with \\n");
+    }
+
     @Test
     void test_island0() {
         Path resourcePath = resourcePath("island0.txt");
@@ -0,0 +1,68 @@
+package island;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IslandMetricsRecorderTest {
+
+    @AfterEach
+    void uninstall() {
+        Metrics.install(null);
+    }
+
+    @Test
+    void recordsTraversalsAndLoads() throws Exception {
+        final IslandMetricsRecorder recorder = new IslandMetricsRecorder();
+        Metrics.install(recorder);
+
+        final IslandMap<Void> islandMap = IslandMap.readFromResource('.', resourcePath("island1.txt"));
+        then(recorder.getLoads()).isEqualTo(1);
+        then(recorder.getLoadedBytes()).isEqualTo(Files.size(resourcePath("island1.txt")));
+        then(recorder.getLoadAllocatedBytes()).isEqualTo(islandMap.estimateHeapBytes());
+        then(recorder.getLoadNanos()).isPositive();
+
+        final LandGrid grid = islandMap.getGrid();
+        final Traversal<Void> traversal = new Traversal<>(islandMap);
+        final int visited = traversal.traverseBFS(grid.index(2, 7), c -> true, (c, n) -> grid.isLand(n), c -> true);
+        then(recorder.getTraversals()).isEqualTo(1);
+        then(recorder.getCellsVisited()).isEqualTo(visited);
+        then(recorder.getNeighboursExamined()).isBetween((long) visited, 4L * visited);
+        then(recorder.getPeakQueueDepth()).isPositive();
+        then(recorder.getEarlyTerminations()).isZero();
+
+        traversal.traverseBFS(islandMap.getPoint(2, 7), p -> false, (p, n) -> n.isLand(), p -> true);
+        then(recorder.getTraversals()).isEqualTo(2);
+        then(recorder.getCellsVisited()).isEqualTo(visited + 1);
+        then(recorder.getEarlyTerminations()).isEqualTo(1);
+
+        final ObjectName name = recorder.registerMBean("test");
+        try {
+            then(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Traversals")).isEqualTo(2L);
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+
+        recorder.reset();
+        Metrics.install(null);
+        traversal.traverseBFS(grid.index(2, 7), c -> true, (c, n) -> grid.isLand(n), c -> true);
+        then(recorder.getTraversals()).isZero();
+    }
+
+    @Test
+    void stringLoadsReportUtf8Bytes() {
+        final IslandMetricsRecorder recorder = new IslandMetricsRecorder();
+        Metrics.install(recorder);
+
+        final String map = "~~\u00e9\n\u00e9\u00e9~\n"; // 8 chars, 11 bytes
+        IslandMap.readFromString('~', map);
+        then(recorder.getLoadedBytes()).isEqualTo(map.getBytes(StandardCharsets.UTF_8).length).isEqualTo(11);
+    }
+}
@@ -0,0 +1,65 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IslandQueryCacheTest {
+
+    @Test
+    void island0() {
+        final IslandMap<MarkerPayload> islandMap = IslandMap.readFromResource('.', resourcePath("island0.txt"));
+        final IslandQueryCache cache = new IslandQueryCache(islandMap.incrementalLakes(), 1 << 20);
+
+        final IslandStatistics statistics = cache.query(22, 1);
+        then(statistics.getLakeCount()).isEqualTo(3);
+        // test_island0 counts 116, as its corner rule marks 3 of these cells before they are reached directly:
+        then(statistics.getShoreCellCount()).isEqualTo(119);
+        then(statistics.getShoreMinX()).isEqualTo(6);
+        then(statistics.getShoreMaxX()).isEqualTo(42);
+        then(statistics.getShoreMinY()).isEqualTo(0);
+        then(statistics.getShoreMaxY()).isEqualTo(8);
+        then(cache.query(38, 4)).isSameAs(statistics);
+        then(cache.getHits()).isEqualTo(1);
+
+        // a new island in the ocean leaves the cached one alone:
+        islandMap.setLand(1, 7, true);
+        then(cache.query(22, 1)).isSameAs(statistics);
+        then(cache.query(1, 7).getShoreCellCount()).isEqualTo(4);
+        then(cache.size()).isEqualTo(2);
+
+        // growing the island drops it, and only it:
+        islandMap.setLand(14, 3, true);
+        then(cache.size()).isEqualTo(1);
+        final IslandStatistics edited = cache.query(22, 1);
+        then(edited).isNotSameAs(statistics);
+        then(edited).isEqualTo(new IncrementalLakeCounter(islandMap.getGrid()).statisticsAt(22, 1));
+        then(edited.getCellCount()).isEqualTo(statistics.getCellCount() + 1);
+    }
+
+    @Test
+    void matchesFreshStatisticsUnderRandomFlips() {
+        final Random random = new Random(23);
+        final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), 37, 31, 0.45);
+        final IncrementalLakeCounter counter = new IncrementalLakeCounter(grid);
+        final IslandQueryCache cache = new IslandQueryCache(counter, 8 * IslandQueryCache.ESTIMATED_ENTRY_BYTES);
+        int queries = 0;
+        for (int step = 0; step < 2000; step++) {
+            final int x = random.nextInt(grid.getWidth());
+            final int y = random.nextInt(grid.getHeight());
+            if (step % 4 == 0) {
+                counter.setLand(x, y, !grid.isLand(x, y));
+            } else if (grid.isLand(x, y)) {
+                then(cache.query(x, y)).isEqualTo(new IncrementalLakeCounter(grid).statisticsAt(x, y));
+                queries++;
+            }
+            then(cache.size()).isLessThanOrEqualTo(8);
+        }
+        then(cache.getHits()).isPositive();
+        then(cache.getMisses()).isPositive();
+        then(cache.getHits() + cache.getMisses()).isEqualTo(queries);
+    }
+}
@@ -0,0 +1,115 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import static island.ComponentLabelingTest.randomGrid;
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class LakeAnalysisTest {
+
+    @Test
+    void distancesAndStatistics() {
+        final LakeAnalysis analysis = IslandMap.readFromString('.', """
+                .........
+                .#######.
+                .#.....#.
+                .#..#..#.
+                .#.....#.
+                .#######.
+                .........
+                """).analyzeLakes();
+        then(analysis.distanceAt(0, 0)).isEqualTo(LakeAnalysis.OCEAN);
+        then(analysis.distanceAt(1, 1)).isEqualTo(LakeAnalysis.LAND);
+        then(analysis.distanceAt(2, 2)).isEqualTo(1);
+        then(analysis.distanceAt(3, 3)).isEqualTo(1); // next to the islet
+        then(analysis.distanceAt(3, 2)).isEqualTo(1);
+        then(analysis.distanceAt(4, 2)).isEqualTo(1);
+
+        then(analysis.lakeStatistics()).containsExactly(new LakeStatistics(2, 2, 1, 1, 14, 14, 1, 1.0));
+        then(analysis.lakeStatisticsAt(6, 4)).isEqualTo(analysis.lakeStatistics().get(0));
+        thenThrownBy(() -> analysis.lakeStatisticsAt(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deepLake() {
+        final LakeAnalysis analysis = IslandMap.readFromString('.', """
+                .........
+                .#######.
+                .#.....#.
+                .#.....#.
+                .#.....#.
+                .#######.
+                .........
+                """).analyzeLakes();
+        then(analysis.distanceAt(4, 3)).isEqualTo(2);
+        then(analysis.distanceAt(3, 3)).isEqualTo(2);
+        then(analysis.distanceAt(2, 3)).isEqualTo(1);
+        final LakeStatistics lake = analysis.lakeStatisticsAt(4, 3);
+        then(lake.getArea()).isEqualTo(15);
+        then(lake.getShoreCellCount()).isEqualTo(12);
+        then(lake.getMaxDistance()).isEqualTo(2);
+        then(lake.getMeanDistance()).isEqualTo((12 + 2 * 3) / 15.0);
+    }
+
+    @Test
+    void island0() {
+        final LakeAnalysis analysis = IslandMap.readFromResource('.', resourcePath("island0.txt")).analyzeLakes();
+        then(analysis.lakeStatistics()).hasSize(3)
+                .allSatisfy(lake -> then(new int[] { lake.getIslandX(), lake.getIslandY() }).containsExactly(15, 1));
+        then(analysis.lakeStatistics().stream().mapToInt(LakeStatistics::getArea).sum()).isEqualTo(53);
+    }
+
+    @Test
+    void matchesPerCellSearch() {
+        for (double landDensity: new double[] { 0.4, 0.55, 0.7 }) {
+            final LandGrid grid = randomGrid(11, 83, 61, landDensity);
+            final LakeAnalysis analysis = LakeAnalysis.analyze(UnionFindLabeler.label(grid));
+            final ComponentLabeling labeling = analysis.getLabeling();
+            final int[] areas = new int[labeling.getComponentCount()];
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    final int component = labeling.componentAt(x, y);
+                    if (labeling.isLake(component)) {
+                        areas[component]++;
+                        then(analysis.distanceAt(x, y)).isEqualTo(nearestLand(grid, x, y));
+                    } else {
+                        then(analysis.distanceAt(x, y))
+                                .isEqualTo(grid.isLand(x, y) ? LakeAnalysis.LAND : LakeAnalysis.OCEAN);
+                    }
+                }
+            }
+            for (LakeStatistics lake: analysis.lakeStatistics()) {
+                then(lake.getArea()).isEqualTo(areas[labeling.componentAt(lake.getX(), lake.getY())]);
+            }
+        }
+    }
+
+    /**
+     * Plain BFS from one lake cell to the first land cell it meets.
+     */
+    private static int nearestLand(LandGrid grid, int startX, int startY) {
+        final int width = grid.getWidth();
+        final int[] seen = new int[grid.cellCount()];
+        final IntRingQueue queue = new IntRingQueue();
+        queue.offer(grid.index(startX, startY));
+        seen[grid.index(startX, startY)] = 1;
+        while (!queue.isEmpty()) {
+            final int cell = queue.poll();
+            final int x = cell % width;
+            final int y = cell / width;
+            if (grid.isLand(x, y)) {
+                return seen[cell] - 1;
+            }
+            for (int[] d: new int[][] { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } }) {
+                final int neighbour = grid.index(x + d[0], y + d[1]);
+                if (seen[neighbour] == 0) {
+                    seen[neighbour] = seen[cell] + 1;
+                    queue.offer(neighbour);
+                }
+            }
+        }
+        throw new AssertionError("A lake without shore");
+    }
+}
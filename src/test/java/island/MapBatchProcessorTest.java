@@ -0,0 +1,111 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static island.ComponentLabelingTest.randomGrid;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class MapBatchProcessorTest {
+
+    @Test
+    void directoryOfMaps(@TempDir Path dir) throws Exception {
+        final Map<String, ComponentLabeling> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            final LandGrid grid = randomGrid(i, 40 + i, 30, 0.3 + i * 0.02);
+            final String name = String.format("tile-%02d.txt", i);
+            Files.writeString(dir.resolve(name), IslandMap.fromGrid(grid, null).export('.', '#'));
+            expected.put(name, ComponentLabeling.label(grid));
+        }
+        Files.writeString(dir.resolve("broken.txt"), "..#\n.#\n");
+
+        final List<MapFileStatistics> results = new ArrayList<>();
+        final MapBatchProcessor.Report report = new MapBatchProcessor('.', 2, 3, 2).process(dir, results::add);
+
+        then(report.getFileCount()).isEqualTo(21);
+        then(report.getFailedCount()).isEqualTo(1);
+        then(results).hasSize(21);
+        long islands = 0;
+        for (MapFileStatistics statistics: results) {
+            if (statistics.getFile().equals("broken.txt")) {
+                then(statistics.isFailed()).isTrue();
+                then(statistics.getError()).contains("length mismatch");
+                continue;
+            }
+            final ComponentLabeling labeling = expected.get(statistics.getFile());
+            final List<IslandSummary> summaries = labeling.islandSummaries();
+            then(statistics.getIslandCount()).isEqualTo(summaries.size());
+            then(statistics.getLakeCount()).isEqualTo(summaries.stream().mapToInt(IslandSummary::getLakeCount).sum());
+            then(statistics.getMaxLakesPerIsland())
+                    .isEqualTo(summaries.stream().mapToInt(IslandSummary::getLakeCount).max().orElse(0));
+            islands += statistics.getIslandCount();
+        }
+        then(report.getIslandCount()).isEqualTo(islands);
+        then(report.filesPerSecond()).isPositive();
+    }
+
+    @Test
+    @Timeout(10)
+    void callerMayHoldTheConsumerMonitor(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("a.txt"), "..#\n.#.\n");
+        Files.writeString(dir.resolve("b.txt"), "#..\n...\n");
+        final List<MapFileStatistics> results = new ArrayList<>();
+        final Consumer<MapFileStatistics> consumer = results::add;
+        synchronized (consumer) {
+            then(new MapBatchProcessor('.', 1, 2, 1).process(dir, consumer).getFileCount()).isEqualTo(2);
+        }
+        then(results).hasSize(2);
+    }
+
+    @Test
+    void jsonLinesAndCsv(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("a,b.txt"), ".....\n.###.\n.#.#.\n.###.\n.....\n");
+        final MapBatchProcessor processor = new MapBatchProcessor('.', 1, 1, 1);
+
+        final StringBuilder json = new StringBuilder();
+        processor.process(dir, json, MapBatchProcessor.Format.JSON_LINES);
+        then(json.toString()).startsWith("{\"file\":\"a,b.txt\",\"width\":5,\"height\":5,\"landCells\":8,"
+                + "\"islands\":1,\"lakes\":1,\"islandsWithLakes\":1,\"maxLakes\":1,").endsWith("}\n");
+
+        final StringBuilder csv = new StringBuilder();
+        processor.process(dir, csv, MapBatchProcessor.Format.CSV);
+        final String[] lines = csv.toString().split("\n");
+        then(lines).hasSize(2);
+        then(lines[0]).isEqualTo(MapFileStatistics.CSV_HEADER);
+        then(lines[1]).startsWith("\"a,b.txt\",5,5,8,1,1,1,1,").endsWith(",");
+    }
+
+    @Test
+    void failingConsumer(@TempDir Path dir) throws Exception {
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(dir.resolve(i + ".txt"), "#.\n.#\n");
+        }
+        thenThrownBy(() -> new MapBatchProcessor('.', 1, 1, 1).process(dir, statistics -> {
+            throw new IllegalStateException("sink is down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("sink is down");
+    }
+
+    @Test
+    void errorsAreReportedWithTheirClass(@TempDir Path dir) throws Exception {
+        then(MapFileStatistics.failed("a.txt", new NullPointerException()).getError())
+                .isEqualTo("java.lang.NullPointerException");
+
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(dir.resolve(i + ".txt"), "#.\n.#\n");
+        }
+        // an Error from the consumer neither kills the labeling threads nor leaves the loaders waiting:
+        thenThrownBy(() -> new MapBatchProcessor('.', 1, 1, 1).process(dir, statistics -> {
+            throw new OutOfMemoryError("no room for the output");
+        })).isInstanceOf(OutOfMemoryError.class);
+    }
+}
@@ -0,0 +1,93 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static island.ComponentLabelingTest.randomGrid;
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class MapExporterTest {
+
+    @Test
+    void sameBytesAsExport() throws Exception {
+        final IslandMap<MarkerPayload> map = IslandMap.readFromResource('.', resourcePath("island0.txt"),
+                (x, y) -> new MarkerPayload());
+        map.getPoint(3, 2).getMutablePayload().setClassification(Classification.WATER_NEAR_ISLAND);
+        final MarkerPayload lake = map.getPoint(30, 4).getMutablePayload();
+        lake.setClassification(Classification.WATER_NEAR_ISLAND);
+        lake.setLakeIndex(12);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long written = new MapExporter(map, '.', '#').write(out);
+        then(out.toByteArray()).isEqualTo(map.export('.', '#').getBytes(StandardCharsets.UTF_8));
+        then(written).isEqualTo(out.size());
+    }
+
+    @Test
+    void nonAsciiSymbolsAndLargeMaps(@TempDir Path dir) throws Exception {
+        // rows are longer than the byte buffer, and land takes 3 bytes per cell:
+        final IslandMap<Object> map = IslandMap.fromGrid(randomGrid(5, 70_000, 3, 0.6),
+                (x, y) -> x % 1000 == 0 ? "\u03bb" : null);
+        final Path file = dir.resolve("export.txt");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            new MapExporter(map, '~', '\u25a0').write(channel);
+        }
+        then(Files.readAllBytes(file)).isEqualTo(map.export('~', '\u25a0').getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void untouchedPayloadsPrintTheirSymbol() throws Exception {
+        final IslandMap<Object> map = IslandMap.readFromString('.', "..#\n#..\n", (x, y) -> "\u03bb");
+        final String expected = "\u03bb\u03bb\u03bb\n\u03bb\u03bb\u03bb\n";
+        then(map.export('.', '#')).isEqualTo(expected);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MapExporter(map, '.', '#').write(out);
+        then(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+        then(map.materializedPayloadCount()).isZero();
+    }
+
+    @Test
+    void subRectangle() throws Exception {
+        final IslandMap<Void> map = IslandMap.readFromResource('.', resourcePath("island0.txt"));
+        final NestingTree tree = map.nestingTree();
+        final int island = tree.nodeAt(22, 1);
+        final int x = tree.minX(island);
+        final int y = tree.minY(island);
+        final int width = tree.maxX(island) - x + 1;
+        final int height = tree.maxY(island) - y + 1;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MapExporter exporter = new MapExporter(map, '.', '#');
+        exporter.write(out, x, y, width, height);
+        final String expected = Arrays.stream(map.export('.', '#').split("\n"))
+                .skip(y).limit(height)
+                .map(line -> line.substring(x, x + width) + "\n")
+                .collect(Collectors.joining());
+        then(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+
+        // the buffers are reused by the next call:
+        out.reset();
+        exporter.write(out);
+        then(out.toString(StandardCharsets.UTF_8)).isEqualTo(map.export('.', '#'));
+
+        thenThrownBy(() -> exporter.write(out, x, y, map.getWidth(), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        // x + width would wrap around to a negative sum:
+        thenThrownBy(() -> exporter.write(out, 1, 0, Integer.MAX_VALUE, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        thenThrownBy(() -> exporter.write(out, 0, 1, 1, Integer.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,82 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class NestingTreeTest {
+
+    @Test
+    void nesting() {
+        final NestingTree tree = IslandMap.readFromString('.', """
+                ...........
+                .#########.
+                .#.......#.
+                .#.#####.#.
+                .#.#.#.#.#.
+                .#.#####.#.
+                .#.......#.
+                .#########.
+                ...........
+                ..#.#......
+                ...#.......
+                ..#.#......
+                ...........
+                """).nestingTree();
+        final int outer = tree.nodeAt(1, 1);
+        final int lake = tree.nodeAt(2, 2);
+        final int inner = tree.nodeAt(3, 3);
+        final int cross = tree.nodeAt(2, 9);
+
+        then(tree.children(NestingTree.ROOT)).containsExactly(outer, cross);
+        then(tree.children(outer)).containsExactly(lake);
+        then(tree.children(lake)).containsExactly(inner);
+        then(tree.children(inner)).containsExactly(tree.nodeAt(4, 4), tree.nodeAt(6, 4));
+        then(tree.depth(tree.nodeAt(6, 4))).isEqualTo(4);
+        then(tree.depth(cross)).isEqualTo(1);
+        then(tree.isLake(lake)).isTrue();
+        then(tree.isLand(inner)).isTrue();
+
+        then(tree.area(outer)).isEqualTo(28);
+        then(tree.area(cross)).isEqualTo(5);
+        then(tree.perimeter(inner)).isEqualTo(16 + 2);
+        then(tree.perimeter(lake)).isEqualTo(24 + 12);
+        then(new int[] { tree.minX(lake), tree.minY(lake), tree.maxX(lake), tree.maxY(lake) })
+                .containsExactly(2, 2, 8, 6);
+    }
+
+    @Test
+    void island0() {
+        final NestingTree tree = IslandMap.readFromResource('.', resourcePath("island0.txt")).nestingTree();
+        final int island = tree.nodeAt(22, 1);
+        then(tree.childCount(island)).isEqualTo(3);
+        then(tree.area(island)).isEqualTo(136);
+        then(tree.perimeter(island)).isEqualTo(119);
+    }
+
+    @Test
+    void matchesComponentLabeling() {
+        final Random random = new Random(29);
+        for (double landDensity: new double[] { 0.3, 0.5, 0.7 }) {
+            final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), 83, 67, landDensity);
+            final ComponentLabeling labeling = ComponentLabeling.label(grid);
+            final NestingTree tree = NestingTree.build(labeling);
+            long totalArea = 0;
+            for (int node = 0; node < tree.getNodeCount(); node++) {
+                totalArea += tree.area(node);
+                if (tree.isLand(node)) {
+                    final int first = tree.firstCell(node);
+                    then(tree.childCount(node)).isEqualTo(labeling.lakeCount(labeling.componentOfCell(first)));
+                }
+                for (int i = 0; i < tree.childCount(node); i++) {
+                    then(tree.parent(tree.child(node, i))).isEqualTo(node);
+                    then(tree.depth(tree.child(node, i))).isEqualTo(tree.depth(node) + 1);
+                }
+            }
+            then(totalArea).isEqualTo(grid.cellCount());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class OffHeapLandGridTest {
+
+    @Test
+    void traversalsMatchTheHeapGrid() {
+        final Random random = new Random(13);
+        final LandGrid grid = ComponentLabelingTest.randomGrid(random.nextLong(), 131, 77, 0.55);
+        final OffHeapLandGrid offHeap = OffHeapLandGrid.copyOf(grid);
+        for (int cell = 0; cell < grid.cellCount(); cell++) {
+            then(offHeap.isLand(cell)).isEqualTo(grid.isLand(cell));
+        }
+
+        final IslandMap<Void> islandMap = IslandMap.fromGrid(grid, null);
+        final Traversal<Void> traversal = new Traversal<>(islandMap);
+        final SharedIslandQueries queries = islandMap.sharedQueries();
+        final OffHeapTraversal offHeapTraversal = new OffHeapTraversal(offHeap);
+        for (int query = 0; query < 200; query++) {
+            final int cell = random.nextInt(grid.cellCount());
+            final boolean land = grid.isLand(cell);
+            then(offHeapTraversal.traverseBFS(cell, c -> true, (c, n) -> offHeap.isLand(n) == land, c -> true))
+                    .isEqualTo(traversal.traverseBFS(cell, c -> true, (c, n) -> grid.isLand(n) == land, c -> true));
+            if (land) {
+                final int x = cell % grid.getWidth();
+                final int y = cell / grid.getWidth();
+                then(offHeapTraversal.traverseIsland(x, y, c -> true)).isEqualTo(queries.islandAreaAt(x, y));
+            }
+        }
+    }
+
+    @Test
+    void mappedGridBeyondIntIndices(@TempDir Path tempDir) {
+        // 2^31 + 2^17 cells in a sparse 256 MB file; only the pages of the cells set are ever touched:
+        final long width = 1 << 16;
+        final long height = (1 << 15) + 2;
+        final OffHeapLandGrid grid = OffHeapLandGrid.map(tempDir.resolve("planet.bits"), width, height);
+        then(grid.cellCount()).isGreaterThan(Integer.MAX_VALUE);
+
+        final long x = width - 3;
+        final long y = height - 1;
+        then(grid.index(x, y)).isGreaterThan(Integer.MAX_VALUE);
+        grid.setLand(x, y, true);
+        grid.setLand(x + 1, y, true);
+        grid.setLand(x + 1, y, false);
+        then(grid.isLand(x, y)).isTrue();
+        then(grid.isLand(grid.index(x, y))).isTrue();
+        then(grid.isLand(x + 1, y)).isFalse();
+        then(grid.isLand(x, y - 1)).isFalse();
+        // the same cell 2^31 cells earlier, where an int index would wrap to:
+        then(grid.isLand(grid.index(x, y) - (1L << 31))).isFalse();
+        then(OffHeapLandGrid.map(tempDir.resolve("planet.bits"), width, height).isLand(x, y)).isTrue();
+    }
+
+    /**
+     * Traverses a map of 3 * 10^9 cells, whose visited bits take 375 MB of direct memory;
+     * run with {@code -Disland.largeTests=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "island.largeTests", matches = "true")
+    void traversalBeyondIntIndices(@TempDir Path tempDir) {
+        // 3 * 10^9 cells, a sparse 375 MB file of which only a few pages are ever touched:
+        final long width = 100_000;
+        final long height = 30_000;
+        final OffHeapLandGrid grid = OffHeapLandGrid.map(tempDir.resolve("planet.bits"), width, height);
+        then(grid.cellCount()).isGreaterThan(Integer.MAX_VALUE);
+
+        // a 3x3 ring with a lake, near the far corner:
+        final long x0 = width - 10;
+        final long y0 = height - 10;
+        for (long dy = 0; dy < 3; dy++) {
+            for (long dx = 0; dx < 3; dx++) {
+                grid.setLand(x0 + dx, y0 + dy, dx != 1 || dy != 1);
+            }
+        }
+        then(grid.index(x0, y0)).isGreaterThan(Integer.MAX_VALUE);
+
+        final OffHeapTraversal traversal = new OffHeapTraversal(grid);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            then(traversal.traverseIsland(x0, y0, c -> true)).isEqualTo(8);
+            then(traversal.traverseBFS(grid.index(x0 + 1, y0 + 1), c -> true, (c, n) -> !grid.isLand(n), c -> true))
+                    .isEqualTo(1);
+        }
+        then(OffHeapLandGrid.map(tempDir.resolve("planet.bits"), width, height).isLand(x0 + 2, y0 + 2)).isTrue();
+    }
+}
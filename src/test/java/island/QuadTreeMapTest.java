@@ -0,0 +1,86 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static island.ComponentLabelingTest.randomGrid;
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class QuadTreeMapTest {
+
+    private static Point<Void> land(int x, int y) {
+        return new Point<>(x, y, true, null);
+    }
+
+    @Test
+    void island0() {
+        final QuadTreeMap map = QuadTreeMap.readFromFile('.', resourcePath("island0.txt"));
+        then(map.lakeCountAt(22, 1)).isEqualTo(3);
+        then(map.countLakes()).containsExactly(new IslandSummary(15, 1, 3));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = { 0.05, 0.3, 0.5, 0.7, 0.95 })
+    void matchesComponentLabeling(double landDensity) {
+        for (long seed = 0; seed < 5; seed++) {
+            final LandGrid grid = randomGrid(seed, 67 + (int) seed, 45, landDensity);
+            final QuadTreeMap map = QuadTreeMap.fromGrid(grid);
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    then(map.isLand(x, y)).isEqualTo(grid.isLand(x, y));
+                }
+            }
+            then(map.countLakes()).isEqualTo(ComponentLabeling.label(grid).islandSummaries());
+        }
+    }
+
+    @Test
+    void sparseMapFromPoints() {
+        // a few ringed islands in a huge ocean:
+        final int size = 1 << 20;
+        final List<Point<Void>> points = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final int left = i * (size / 8) + 1000;
+            final int top = i * 7919 + 5;
+            for (int d = 0; d < 100; d++) {
+                points.add(land(left + d, top));
+                points.add(land(left + d, top + 99));
+                points.add(land(left, top + d));
+                points.add(land(left + 99, top + d));
+            }
+            points.add(land(left + 50, top + 50)); // an islet in the lake, whose lakes do not count
+        }
+        final QuadTreeMap map = QuadTreeMap.fromPoints(size, size, points);
+
+        then(map.countLakes()).hasSize(16).filteredOn(summary -> summary.getLakeCount() == 1).hasSize(8);
+        then(map.lakeCountAt(1000, 5)).isEqualTo(1);
+        then(map.isLand(1000 + 50, 5 + 50)).isTrue();
+        then(map.isLand(1000 + 51, 5 + 50)).isFalse();
+        // memory follows the coastline, a 2^40 cell map takes well under a megabyte:
+        then(map.heapBytes()).isLessThan(1 << 20);
+        // and the leaves are a few per land cell, not per cell:
+        then(map.leafCount()).isLessThan(4 * points.size());
+    }
+
+    @Test
+    void textAndPointsAgree() {
+        final QuadTreeMap text = QuadTreeMap.readFromString('.', """
+                .....
+                .###.
+                .#.#.
+                .###.
+                """);
+        final QuadTreeMap points = QuadTreeMap.fromPoints(5, 4, List.of(
+                land(1, 1), land(2, 1), land(3, 1), land(1, 2),
+                land(3, 2), land(1, 3), land(2, 3), land(3, 3)));
+        then(text.getWidth()).isEqualTo(5);
+        then(text.getHeight()).isEqualTo(4);
+        then(text.getSlotCount()).isEqualTo(points.getSlotCount());
+        then(text.countLakes()).containsExactly(new IslandSummary(1, 1, 1)).isEqualTo(points.countLakes());
+    }
+}
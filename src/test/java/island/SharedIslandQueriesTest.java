@@ -0,0 +1,153 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class SharedIslandQueriesTest {
+
+    @Test
+    void concurrentQueriesMatchSequentialOnes() throws Exception {
+        final LandGrid grid = ComponentLabelingTest.randomGrid(5, 301, 257, 0.45);
+        final IslandMap<Void> islandMap = IslandMap.fromGrid(grid, null);
+        final ComponentLabeling labeling = ComponentLabeling.label(grid);
+        final SharedIslandQueries queries = islandMap.sharedQueries();
+
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<List<List<Object>>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final long seed = t;
+                results.add(executor.submit(() -> answers(seed, grid, (x, y) -> {
+                    final BitSet cells = new BitSet();
+                    final int visited = queries.traverseIsland(x, y, c -> {
+                        cells.set(c);
+                        return true;
+                    });
+                    return List.of(queries.lakeCountAt(x, y), queries.islandAreaAt(x, y), visited, cells);
+                })));
+            }
+            final BitSet[] componentCells = new BitSet[labeling.getComponentCount()];
+            for (int cell = 0; cell < grid.cellCount(); cell++) {
+                final int component = labeling.componentOfCell(cell);
+                if (componentCells[component] == null) {
+                    componentCells[component] = new BitSet();
+                }
+                componentCells[component].set(cell);
+            }
+            for (int t = 0; t < threads; t++) {
+                then(results.get(t).get()).isEqualTo(answers(t, grid, (x, y) -> {
+                    final int component = labeling.componentAt(x, y);
+                    final BitSet cells = componentCells[component];
+                    return List.of(labeling.lakeCount(component), cells.cardinality(), cells.cardinality(), cells);
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        then(islandMap.getTraversalContexts().getCreatedCount()).isLessThanOrEqualTo(threads);
+    }
+
+    @Test
+    void payloadsOfAFrozenMapAreCreatedOncePerCell() throws Exception {
+        final LandGrid grid = ComponentLabelingTest.randomGrid(7, 61, 53, 0.5);
+        final IslandMap<int[]> islandMap = IslandMap.fromGrid(grid, (x, y) -> new int[] { x, y });
+        islandMap.freeze();
+
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<List<int[]>>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                // every thread walks all cells, from a different page, so they race for pages and cells:
+                final int offset = t * grid.cellCount() / threads;
+                results.add(executor.submit(() -> {
+                    final List<int[]> payloads = new ArrayList<>();
+                    for (int i = 0; i < grid.cellCount(); i++) {
+                        final int cell = (offset + i) % grid.cellCount();
+                        payloads.add(islandMap.getPoint(cell % grid.getWidth(), cell / grid.getWidth())
+                                .getMutablePayload());
+                    }
+                    return payloads;
+                }));
+            }
+            final int[][] kept = new int[grid.cellCount()][];
+            for (int t = 0; t < threads; t++) {
+                final int offset = t * grid.cellCount() / threads;
+                final List<int[]> payloads = results.get(t).get();
+                for (int i = 0; i < grid.cellCount(); i++) {
+                    final int cell = (offset + i) % grid.cellCount();
+                    final int[] payload = payloads.get(i);
+                    then(payload).containsExactly(cell % grid.getWidth(), cell / grid.getWidth());
+                    if (kept[cell] == null) {
+                        kept[cell] = payload;
+                    }
+                    then(payload).isSameAs(kept[cell]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        then(islandMap.materializedPayloadCount()).isEqualTo(grid.cellCount());
+    }
+
+    /**
+     * Answers of a hundred queries at random land cells, the same cells for the same seed.
+     */
+    private static List<List<Object>> answers(long seed, LandGrid grid,
+                                              BiFunction<Integer, Integer, List<Object>> query) {
+        final Random random = new Random(seed);
+        final List<List<Object>> answers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int x = random.nextInt(grid.getWidth());
+            final int y = random.nextInt(grid.getHeight());
+            if (grid.isLand(x, y)) {
+                answers.add(query.apply(x, y));
+            }
+        }
+        return answers;
+    }
+
+    @Test
+    void frozenMapRejectsEdits() {
+        final IslandMap<Void> islandMap = IslandMap.readFromString('.', """
+                ....
+                .##.
+                ....""");
+        islandMap.setLand(0, 0, true);
+        final SharedIslandQueries queries = islandMap.sharedQueries();
+        thenThrownBy(() -> islandMap.setLand(0, 0, false)).isInstanceOf(IllegalStateException.class);
+        then(queries.islandAreaAt(0, 0)).isEqualTo(3);
+    }
+
+    @Test
+    void frozenMapStaysFrozen() {
+        final IslandMap<Void> islandMap = IslandMap.readFromString('.', """
+                .....
+                .###.
+                .#.#.
+                .###.
+                .....""");
+        final IncrementalLakeCounter counter = islandMap.incrementalLakes();
+        islandMap.freeze();
+
+        thenThrownBy(() -> islandMap.getGrid().setLand(0, 0, true)).isInstanceOf(IllegalStateException.class);
+        thenThrownBy(() -> counter.setLand(2, 1, false)).isInstanceOf(IllegalStateException.class);
+        thenThrownBy(islandMap::incrementalLakes).isInstanceOf(IllegalStateException.class);
+        then(islandMap.getGrid().isLand(2, 1)).isTrue();
+        then(islandMap.lakeCountAt(1, 1)).isEqualTo(1);
+        then(islandMap.lakeCountsAt(new int[] { 1, 0 }, new int[] { 1, 0 })).containsExactly(1, -1);
+        then(islandMap.sharedQueries()).isSameAs(islandMap.sharedQueries());
+    }
+}
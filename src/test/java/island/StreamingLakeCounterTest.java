@@ -0,0 +1,67 @@
+package island;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static island.IslandMapTest.resourcePath;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class StreamingLakeCounterTest {
+
+    private static List<IslandSummary> inRasterOrder(List<IslandSummary> islands) {
+        final List<IslandSummary> sorted = new ArrayList<>(islands);
+        sorted.sort(Comparator.comparingInt(IslandSummary::getY).thenComparingInt(IslandSummary::getX));
+        return sorted;
+    }
+
+    private static Stream<String> rows(LandGrid grid) {
+        return IntStream.range(0, grid.getHeight()).mapToObj(y -> {
+            final StringBuilder sb = new StringBuilder(grid.getWidth());
+            for (int x = 0; x < grid.getWidth(); x++) {
+                sb.append(grid.isLand(x, y) ? '#' : '.');
+            }
+            return sb.toString();
+        });
+    }
+
+    @Test
+    void matchesWholeMapLabelingOnIsland1() throws Exception {
+        final List<IslandSummary> streamed = StreamingLakeCounter.countLakes('.', resourcePath("island1.txt"));
+        final List<IslandSummary> expected = IslandMap.readFromResource('.', resourcePath("island1.txt")).countLakes();
+        then(inRasterOrder(streamed)).isEqualTo(expected);
+        then(streamed).contains(new IslandSummary(115, 3, 4));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = { 0.1, 0.3, 0.45, 0.55, 0.7, 0.9 })
+    void matchesWholeMapLabelingOnNoise(double landDensity) {
+        for (long seed = 0; seed < 5; seed++) {
+            final LandGrid grid = ComponentLabelingTest.randomGrid(seed, 67, 45, landDensity);
+            final List<IslandSummary> streamed = StreamingLakeCounter.countLakes('.', rows(grid));
+            then(inRasterOrder(streamed)).isEqualTo(ComponentLabeling.label(grid).islandSummaries());
+        }
+    }
+
+    @Test
+    void reportsIslandsAsTheyClose() {
+        final List<IslandSummary> reported = new ArrayList<>();
+        final StreamingLakeCounter counter = new StreamingLakeCounter('.', reported::add);
+        counter.acceptRow(".....");
+        counter.acceptRow(".###.");
+        counter.acceptRow(".#.#.");
+        counter.acceptRow(".###.");
+        then(reported).isEmpty();
+        counter.acceptRow(".....");
+        then(reported).containsExactly(new IslandSummary(1, 1, 1));
+        counter.acceptRow("#....");
+        counter.finish();
+        then(reported).containsExactly(new IslandSummary(1, 1, 1), new IslandSummary(0, 5, 0));
+    }
+}